@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.benchmark;
+
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+
+/**
+ * Represents the table that is used by the database benchmarks.
+ */
+@Table(name = "bench_entity", options = { Table.Option.CREATE_IF_NOT_EXISTS })
+public class BenchmarkEntity {
+
+    @Column(options = { Column.Option.PRIMARY_KEY, Column.Option.AUTO_INCREMENT })
+    private int id;
+
+    @Column(options = { Column.Option.NOT_NULL })
+    private String name;
+
+    @Column
+    private long score;
+
+    @Column
+    private boolean active;
+
+    public BenchmarkEntity() {
+
+    }
+
+    public BenchmarkEntity(int id, String name, long score, boolean active) {
+
+        this.id = id;
+        this.name = name;
+        this.score = score;
+        this.active = active;
+    }
+
+    public int getId() {
+
+        return id;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+    public long getScore() {
+
+        return score;
+    }
+
+    public boolean isActive() {
+
+        return active;
+    }
+}
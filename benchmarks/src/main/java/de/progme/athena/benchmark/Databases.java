@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.benchmark;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.settings.AthenaSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper to set up file-backed SQLite databases for the benchmarks.
+ */
+final class Databases {
+
+    private Databases() {
+
+    }
+
+    /**
+     * Creates a new empty SQLite database in a temporary file and connects to it.
+     *
+     * @param prefix the prefix of the file name.
+     * @return the connected Athena instance.
+     * @throws IOException if the temporary file cannot be created.
+     */
+    static Athena sqlite(String prefix) throws IOException {
+
+        File file = File.createTempFile(prefix, ".db");
+        file.deleteOnExit();
+
+        Athena athena = new Athena(new AthenaSettings.Builder()
+                .database(file.getAbsolutePath())
+                .poolSize(2)
+                .poolName("Athena-Benchmark")
+                .type(Type.SQLITE)
+                .build());
+        athena.connect();
+
+        return athena;
+    }
+
+    /**
+     * Creates the benchmark table and fills it with the given number of rows.
+     *
+     * @param athena the Athena instance.
+     * @param rows the number of rows.
+     */
+    static void fill(Athena athena, int rows) {
+
+        athena.serializationManager().create(BenchmarkEntity.class);
+        if (rows == 0) {
+            return;
+        }
+
+        List<BenchmarkEntity> entities = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            entities.add(new BenchmarkEntity(0, "name-" + i, i * 31L, (i & 1) == 0));
+        }
+
+        if (!athena.serializationManager().insertAll(entities).successful()) {
+            throw new IllegalStateException("Could not fill the benchmark table");
+        }
+    }
+}
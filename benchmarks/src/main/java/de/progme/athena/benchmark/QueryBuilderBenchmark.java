@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.benchmark;
+
+import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.db.serialization.Order;
+import de.progme.athena.query.PreparedQuery;
+import de.progme.athena.query.Query;
+import de.progme.athena.query.core.InsertQuery;
+import de.progme.athena.query.core.SelectQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SQL generation of the query builders without any database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBuilderBenchmark {
+
+    private String name;
+
+    private PreparedQuery preparedInsert;
+
+    @Setup
+    public void setup() {
+
+        name = "name-42";
+        preparedInsert = new InsertQuery.Builder()
+                .into("bench_entity")
+                .columns("name", "score", "active")
+                .values("", "", "")
+                .prepare();
+    }
+
+    @Benchmark
+    public String select() {
+
+        return new SelectQuery.Builder()
+                .select("id", "name", "score")
+                .from("bench_entity")
+                .where(new Condition("name", Condition.Operator.EQUAL, name))
+                .where(new Condition("score", Condition.Operator.GREATER, "100"))
+                .orderBy(new Order("score", Order.Type.DESC))
+                .limit(10)
+                .build().sql();
+    }
+
+    @Benchmark
+    public String insert() {
+
+        return new InsertQuery.Builder()
+                .into("bench_entity")
+                .columns("name", "score", "active")
+                .values(name, "1302", "true")
+                .build().sql();
+    }
+
+    @Benchmark
+    public String insertMultipleRows() {
+
+        InsertQuery.Builder builder = new InsertQuery.Builder()
+                .into("bench_entity")
+                .columns("name", "score", "active");
+        for (int i = 0; i < 16; i++) {
+            builder.row(name, "1302", "true");
+        }
+
+        return builder.build().sql();
+    }
+
+    @Benchmark
+    public Query insertPrepared() {
+
+        return preparedInsert.bind(name, "1302", "true");
+    }
+}
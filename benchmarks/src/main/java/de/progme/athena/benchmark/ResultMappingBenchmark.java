@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.benchmark;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.DBResult;
+import de.progme.athena.db.DBRow;
+import de.progme.athena.query.Query;
+import de.progme.athena.query.core.SelectQuery;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how fast a large SQLite result is read into rows, either fully materialized or streamed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultMappingBenchmark {
+
+    @Param({ "10000" })
+    private int rows;
+
+    private Athena athena;
+
+    private Query query;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        athena = Databases.sqlite("athena-result");
+        Databases.fill(athena, rows);
+
+        query = new SelectQuery.Builder()
+                .select("*")
+                .from("bench_entity")
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Benchmark
+    public int query() {
+
+        DBResult result = athena.query(query);
+
+        return result.size();
+    }
+
+    @Benchmark
+    public void queryAndRead(Blackhole blackhole) {
+
+        DBResult result = athena.query(query);
+        for (DBRow row : result.rows()) {
+            blackhole.consume(row.getLong("id"));
+            blackhole.consume(row.<String>get("name"));
+        }
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+
+        try (Stream<DBRow> stream = athena.stream(query)) {
+            Iterator<DBRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                DBRow row = iterator.next();
+                blackhole.consume(row.getLong("id"));
+                blackhole.consume(row.<String>get("name"));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.benchmark;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.db.serialization.SerializationManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SerializationManager against a file-backed SQLite database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    /**
+     * A database with a filled table that is only read.
+     */
+    @State(Scope.Benchmark)
+    public static class ReadState {
+
+        @Param({ "1000" })
+        private int rows;
+
+        private Athena athena;
+
+        private SerializationManager serializationManager;
+
+        private Condition condition;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+
+            athena = Databases.sqlite("athena-select");
+            Databases.fill(athena, rows);
+
+            serializationManager = athena.serializationManager();
+            condition = new Condition("id", Condition.Operator.EQUAL, String.valueOf(rows / 2));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+
+            athena.close();
+        }
+    }
+
+    /**
+     * A database with an empty table that is written to.
+     */
+    @State(Scope.Benchmark)
+    public static class WriteState {
+
+        private Athena athena;
+
+        private SerializationManager serializationManager;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+
+            athena = Databases.sqlite("athena-insert");
+            Databases.fill(athena, 0);
+
+            serializationManager = athena.serializationManager();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+
+            athena.close();
+        }
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> selectAll(ReadState state) {
+
+        return state.serializationManager.select(BenchmarkEntity.class);
+    }
+
+    @Benchmark
+    public List<BenchmarkEntity> selectOne(ReadState state) {
+
+        return state.serializationManager.select(BenchmarkEntity.class, state.condition);
+    }
+
+    @Benchmark
+    public boolean insert(WriteState state) {
+
+        return state.serializationManager.insert(new BenchmarkEntity(0, "name", 1302L, true));
+    }
+}
@@ -22,10 +22,20 @@ package de.progme.athena;
 import de.progme.athena.async.AthenaDispatcher;
 import de.progme.athena.async.DispatcherConsumer;
 import de.progme.athena.db.AthenaConnection;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.DBCursor;
 import de.progme.athena.db.DBResult;
+import de.progme.athena.db.DBRow;
+import de.progme.athena.db.RowReader;
 import de.progme.athena.db.Type;
 import de.progme.athena.db.serialization.SerializationManager;
 import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.db.transaction.Isolation;
+import de.progme.athena.db.transaction.Transaction;
+import de.progme.athena.db.transaction.TransactionConsumer;
+import de.progme.athena.metrics.MetricsRecorder;
+import de.progme.athena.metrics.PoolStats;
+import de.progme.athena.metrics.SlowQueryLog;
 import de.progme.athena.query.CustomQuery;
 import de.progme.athena.query.Query;
 
@@ -33,7 +43,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Created by Marvin Erkes on 11.08.2015.
@@ -62,6 +77,28 @@ public class Athena {
      */
     private final AthenaDispatcher athenaDispatcher;
 
+    /**
+     * The recorder for query metrics.
+     */
+    private final MetricsRecorder metrics;
+
+    /**
+     * The log for slow statements.
+     */
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * The running transaction of the current thread.
+     */
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+
+    /**
+     * The time from System.nanoTime() of the last write of the current thread.
+     * The pinning is per thread, so writes on the dispatcher threads of the async methods and of the
+     * write-behind flusher do not pin the reads of the thread that started them.
+     */
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
     /**
      * Create a new Athena object.
      *
@@ -71,7 +108,9 @@ public class Athena {
 
         this.settings = settings;
         this.serializationManager = new SerializationManager(this);
-        this.athenaDispatcher = new AthenaDispatcher();
+        this.athenaDispatcher = new AthenaDispatcher(settings);
+        this.metrics = settings.metrics();
+        this.slowQueryLog = new SlowQueryLog(settings.slowQueryThreshold(), settings.slowQuerySampleRate());
     }
 
     /**
@@ -84,9 +123,11 @@ public class Athena {
 
     /**
      * Closes Athena and the async dispatcher.
+     * Buffered writes of tables with the WRITE_BEHIND option are written before.
      */
     public void close() {
 
+        serializationManager.close();
         athenaDispatcher.close();
         connection.close();
     }
@@ -131,10 +172,24 @@ public class Athena {
      */
     public boolean execute(Query query) {
 
-        try (Connection con = connection.getConnection()) {
-            PreparedStatement preparedStatement = query.prepareStatement(con);
-            preparedStatement.execute();
-            preparedStatement.close();
+        long start = System.nanoTime();
+        long wait = -1;
+        int rows = -1;
+        boolean successful = false;
+
+        try (Connection con = acquire()) {
+            long acquired = System.nanoTime();
+            wait = acquired - start;
+            try {
+                PreparedStatement preparedStatement = prepare(query, con);
+                preparedStatement.execute();
+                rows = preparedStatement.getUpdateCount();
+                preparedStatement.close();
+
+                successful = true;
+            } finally {
+                recordQuery(query, acquired, successful);
+            }
 
             return true;
         } catch (SQLException e) {
@@ -142,12 +197,447 @@ public class Athena {
                 e.printStackTrace();
             }
 
+            markRollbackOnly();
+
+            return false;
+        } finally {
+            logSlowQuery(query, start, wait, rows, successful);
+        }
+    }
+
+    /**
+     * Executes a Query and reads the keys the database generated for it, for example for AUTO_INCREMENT columns.
+     *
+     * If an exception occurs or the connection/query timeout is reached, it returns null.
+     *
+     * @param query the Query.
+     * @return the generated keys in the order of the inserted rows, empty if there are none.
+     */
+    public long[] executeReturningKeys(Query query) {
+
+        long start = System.nanoTime();
+        long wait = -1;
+        int rows = -1;
+        boolean successful = false;
+
+        try (Connection con = acquire()) {
+            long acquired = System.nanoTime();
+            wait = acquired - start;
+            try (PreparedStatement preparedStatement = con.prepareStatement(query.sql(), Statement.RETURN_GENERATED_KEYS)) {
+                query.bind(preparedStatement);
+                rows = preparedStatement.executeUpdate();
+
+                long[] keys = generatedKeys(preparedStatement, rows);
+                successful = true;
+
+                return keys;
+            } finally {
+                recordQuery(query, acquired, successful);
+            }
+        } catch (SQLException e) {
+            if(settings.printExceptions()) {
+                e.printStackTrace();
+            }
+
+            markRollbackOnly();
+
+            return null;
+        } finally {
+            logSlowQuery(query, start, wait, rows, successful);
+        }
+    }
+
+    /**
+     * Executes a Query async with the dispatcher.
+     *
+     * @param query the Query.
+     * @return the future that is completed with the result of {@link #execute(Query)}.
+     */
+    public CompletableFuture<Boolean> executeAsync(Query query) {
+
+        return athenaDispatcher.supply(() -> execute(query));
+    }
+
+    /**
+     * Executes the queries in batches with the batch size from the settings.
+     *
+     * @param queries the queries.
+     * @return the BatchResult with the update counts of every batch.
+     * @see #executeBatch(Collection, int)
+     */
+    public BatchResult executeBatch(Collection<? extends Query> queries) {
+
+        return executeBatch(queries, settings.batchSize());
+    }
+
+    /**
+     * Executes the queries in batches on one connection.
+     *
+     * Every batch contains up to batchSize queries and is committed as one transaction.
+     * Consecutive queries with the same SQL share one prepared statement and are sent with a JDBC batch.
+     * If an exception occurs, the failed batch is rolled back and the result is marked as not successful.
+     * Inside a transaction the batches are not committed on their own but with the transaction.
+     *
+     * @param queries the queries.
+     * @param batchSize the maximum number of queries per batch.
+     * @return the BatchResult with the update counts of every committed batch.
+     */
+    public BatchResult executeBatch(Collection<? extends Query> queries, int batchSize) {
+
+        return executeBatch(queries, batchSize, false);
+    }
+
+    /**
+     * Executes the queries in batches on one connection like {@link #executeBatch(Collection, int)}.
+     *
+     * If returnKeys is true, the generated keys are read after every JDBC batch. The BatchResult then contains
+     * one key for every committed query or 0 if the query did not generate exactly one key.
+     *
+     * @param queries the queries.
+     * @param batchSize the maximum number of queries per batch.
+     * @param returnKeys whether the generated keys are read.
+     * @return the BatchResult with the update counts and generated keys of every committed batch.
+     */
+    public BatchResult executeBatch(Collection<? extends Query> queries, int batchSize, boolean returnKeys) {
+
+        List<int[]> updateCounts = new ArrayList<>();
+        long[] generatedKeys = new long[0];
+
+        try (Connection con = acquire()) {
+            if (transaction.get() != null) {
+                Iterator<? extends Query> iterator = queries.iterator();
+                while (iterator.hasNext()) {
+                    List<long[]> batchKeys = returnKeys ? new ArrayList<>() : null;
+                    updateCounts.add(executeBatch(con, iterator, Math.max(1, batchSize), batchKeys));
+                    generatedKeys = append(generatedKeys, batchKeys);
+                }
+
+                return new BatchResult(updateCounts, generatedKeys, true);
+            }
+
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+
+            try {
+                Iterator<? extends Query> iterator = queries.iterator();
+                while (iterator.hasNext()) {
+                    List<long[]> batchKeys = returnKeys ? new ArrayList<>() : null;
+                    int[] batchUpdateCounts = executeBatch(con, iterator, Math.max(1, batchSize), batchKeys);
+                    con.commit();
+
+                    updateCounts.add(batchUpdateCounts);
+                    generatedKeys = append(generatedKeys, batchKeys);
+                }
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+
+            return new BatchResult(updateCounts, generatedKeys, true);
+        } catch (SQLException e) {
+            if(settings.printExceptions()) {
+                e.printStackTrace();
+            }
+
+            markRollbackOnly();
+
+            return new BatchResult(updateCounts, generatedKeys, false);
+        }
+    }
+
+    /**
+     * Executes the next batchSize queries of the iterator on the connection.
+     *
+     * @param con the connection.
+     * @param queries the iterator of the remaining queries.
+     * @param batchSize the maximum number of queries.
+     * @param generatedKeys the list the generated keys of every JDBC batch are added to or null if they are not read.
+     * @return the update counts of the executed queries.
+     * @throws SQLException if a database access error occurs.
+     */
+    private int[] executeBatch(Connection con, Iterator<? extends Query> queries, int batchSize, List<long[]> generatedKeys) throws SQLException {
+
+        int[] updateCounts = new int[0];
+        PreparedStatement preparedStatement = null;
+        String sql = null;
+        int statements = 0;
+
+        try {
+            for (int i = 0; i < batchSize && queries.hasNext(); i++) {
+                Query query = queries.next();
+                String querySql = query.sql();
+
+                if (preparedStatement == null || !querySql.equals(sql)) {
+                    if (preparedStatement != null) {
+                        updateCounts = append(updateCounts, executeBatch(preparedStatement, sql, statements, generatedKeys));
+                        preparedStatement.close();
+                    }
+
+                    sql = querySql;
+                    preparedStatement = generatedKeys != null ? con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : con.prepareStatement(sql);
+                    statements = 0;
+                }
+
+                query.bind(preparedStatement);
+                preparedStatement.addBatch();
+                statements++;
+            }
+
+            if (preparedStatement != null) {
+                updateCounts = append(updateCounts, executeBatch(preparedStatement, sql, statements, generatedKeys));
+            }
+        } finally {
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+        }
+
+        return updateCounts;
+    }
+
+    /**
+     * Executes the batch of the prepared statement and reads one generated key for every statement.
+     *
+     * @param preparedStatement the prepared statement.
+     * @param sql the SQL string of the prepared statement.
+     * @param statements the number of statements in the batch.
+     * @param generatedKeys the list the generated keys are added to or null if they are not read.
+     * @return the update counts.
+     * @throws SQLException if a database access error occurs.
+     */
+    private int[] executeBatch(PreparedStatement preparedStatement, String sql, int statements, List<long[]> generatedKeys) throws SQLException {
+
+        int[] updateCounts = executeBatch(preparedStatement, sql);
+
+        if (generatedKeys != null) {
+            int rows = 0;
+            for (int updateCount : updateCounts) {
+                rows += Math.max(0, updateCount);
+            }
+
+            long[] keys = generatedKeys(preparedStatement, rows);
+            generatedKeys.add(keys.length == statements ? keys : new long[statements]);
+        }
+
+        return updateCounts;
+    }
+
+    /**
+     * Reads the generated keys of the last execution of the statement.
+     *
+     * SQLite only reports the key of the last inserted row. Because SQLite holds the write lock
+     * while the statement or batch is executed, the keys of the other rows are the ones right before it.
+     *
+     * @param preparedStatement the prepared statement that was created with RETURN_GENERATED_KEYS.
+     * @param rows the number of inserted rows.
+     * @return the generated keys in the order of the inserted rows.
+     * @throws SQLException if a database access error occurs.
+     */
+    private long[] generatedKeys(PreparedStatement preparedStatement, int rows) throws SQLException {
+
+        long[] keys = new long[0];
+        int count = 0;
+
+        try (ResultSet resultSet = preparedStatement.getGeneratedKeys()) {
+            while (resultSet != null && resultSet.next()) {
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(8, count * 2));
+                }
+                keys[count++] = resultSet.getLong(1);
+            }
+        }
+
+        keys = Arrays.copyOf(keys, count);
+
+        if (type() == Type.SQLITE && count == 1 && rows > 1) {
+            long last = keys[0];
+
+            keys = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                keys[i] = last - rows + 1 + i;
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Executes the batch of the prepared statement and records its execution time.
+     *
+     * @param preparedStatement the prepared statement.
+     * @param sql the SQL string of the prepared statement.
+     * @return the update counts.
+     * @throws SQLException if a database access error occurs.
+     */
+    private int[] executeBatch(PreparedStatement preparedStatement, String sql) throws SQLException {
+
+        long start = System.nanoTime();
+        int[] updateCounts = null;
+        try {
+            updateCounts = preparedStatement.executeBatch();
+
+            return updateCounts;
+        } finally {
+            long end = System.nanoTime();
+            recordQuery(sql, start, updateCounts != null);
+
+            if (slowQueryLog.isSlow(end - start)) {
+                int rows = -1;
+                if (updateCounts != null) {
+                    rows = 0;
+                    for (int updateCount : updateCounts) {
+                        rows += Math.max(0, updateCount);
+                    }
+                }
+
+                slowQueryLog.log(sql, Collections.emptyList(), end - start, 0, rows, updateCounts != null);
+            }
+        }
+    }
+
+    /**
+     * Appends all arrays of the list to the array.
+     *
+     * @param first the array.
+     * @param arrays the arrays or null if there is nothing to append.
+     * @return the new array with the values of all arrays.
+     */
+    private static long[] append(long[] first, List<long[]> arrays) {
+
+        if (arrays == null) {
+            return first;
+        }
+
+        long[] result = first;
+        for (long[] array : arrays) {
+            int length = result.length;
+            result = Arrays.copyOf(result, length + array.length);
+            System.arraycopy(array, 0, result, length, array.length);
+        }
+
+        return result;
+    }
+
+    /**
+     * Appends the second array to the first one.
+     *
+     * @param first the first array.
+     * @param second the second array.
+     * @return the new array with the values of both arrays.
+     */
+    private static int[] append(int[] first, int[] second) {
+
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+
+        return result;
+    }
+
+    /**
+     * Runs the consumer in a transaction with the default isolation level.
+     *
+     * @param consumer the unit of work.
+     * @return true if the transaction was committed, otherwise false.
+     * @see #transaction(Isolation, TransactionConsumer)
+     */
+    public boolean transaction(TransactionConsumer consumer) {
+
+        return transaction(null, consumer);
+    }
+
+    /**
+     * Runs the consumer in a transaction on one pinned connection.
+     *
+     * All queries of this Athena instance and its SerializationManager on the current thread use the
+     * pinned connection until the consumer returns, then the transaction is committed once.
+     * It is rolled back instead if the consumer throws an exception or a statement inside failed.
+     * If a transaction is already running on the current thread, the consumer joins it.
+     *
+     * @param isolation the isolation level or null for the default of the connection.
+     * @param consumer the unit of work.
+     * @return true if the transaction was committed, otherwise false.
+     */
+    public boolean transaction(Isolation isolation, TransactionConsumer consumer) {
+
+        Transaction current = transaction.get();
+        if (current != null) {
+            try {
+                consumer.execute(current);
+
+                return !current.isRollbackOnly();
+            } catch (SQLException e) {
+                if(settings.printExceptions()) {
+                    e.printStackTrace();
+                }
+
+                current.setRollbackOnly();
+
+                return false;
+            } catch (RuntimeException | Error e) {
+                current.setRollbackOnly();
+                throw e;
+            }
+        }
+
+        try (Connection con = acquire()) {
+            boolean autoCommit = con.getAutoCommit();
+            int level = con.getTransactionIsolation();
+
+            con.setAutoCommit(false);
+            if (isolation != null) {
+                con.setTransactionIsolation(isolation.level());
+            }
+
+            current = new Transaction(this, con);
+            transaction.set(current);
+
+            try {
+                consumer.execute(current);
+
+                if (current.isRollbackOnly()) {
+                    con.rollback();
+                    return false;
+                }
+
+                con.commit();
+                return true;
+            } catch (SQLException | RuntimeException | Error e) {
+                con.rollback();
+                throw e;
+            } finally {
+                transaction.remove();
+
+                con.setAutoCommit(autoCommit);
+                if (isolation != null) {
+                    con.setTransactionIsolation(level);
+                }
+
+                current.complete();
+            }
+        } catch (SQLException e) {
+            if(settings.printExceptions()) {
+                e.printStackTrace();
+            }
+
             return false;
         }
     }
 
+    /**
+     * Gets the running transaction of the current thread.
+     *
+     * @return the Transaction or null if no transaction is running.
+     */
+    public Transaction currentTransaction() {
+
+        return transaction.get();
+    }
+
     /**
      * Queries a prepared statement and returns the result as DBResult.
+     * If read replicas are configured, the query is sent to a replica outside of transactions.
      *
      * If an exception occurs or the connection/query timeout is reached, the DBResult returned is null.
      *
@@ -156,17 +646,118 @@ public class Athena {
      */
     public DBResult query(Query query) {
 
-        try (Connection con = connection.getConnection()) {
-            PreparedStatement preparedStatement = query.prepareStatement(con);
-            ResultSet resultSet = preparedStatement.executeQuery();
+        long start = System.nanoTime();
+        long wait = -1;
+        DBResult result = null;
+
+        try (Connection con = acquireRead(false)) {
+            long acquired = System.nanoTime();
+            wait = acquired - start;
+            try {
+                PreparedStatement preparedStatement = prepare(query, con);
+                ResultSet resultSet = preparedStatement.executeQuery();
+
+                result = new DBResult(resultSet, preparedStatement);
+            } finally {
+                if (metrics != MetricsRecorder.NOOP) {
+                    String sql = query.sql();
+                    recordQuery(sql, acquired, result != null);
+                    if (result != null) {
+                        metrics.rowsReturned(sql, result.size());
+                    }
+                }
+            }
+
+            return result;
+        } catch (SQLException e) {
+            if(settings.printExceptions()) {
+                e.printStackTrace();
+            }
+
+            markRollbackOnly();
+
+            return null;
+        } finally {
+            logSlowQuery(query, start, wait, result != null ? result.size() : -1, result != null);
+        }
+    }
+
+    /**
+     * Queries a prepared statement and maps every row with the reader directly from the result set.
+     * If read replicas are configured, the query is sent to a replica outside of transactions.
+     *
+     * If an exception occurs or the connection/query timeout is reached, the list returned is null.
+     *
+     * @param query the query.
+     * @param reader the reader that maps a row.
+     * @return the mapped rows.
+     */
+    public <T> List<T> query(Query query, RowReader<T> reader) {
+
+        return query(query, reader, false);
+    }
+
+    /**
+     * Queries a prepared statement on the primary like {@link #query(Query, RowReader)}, even if read replicas
+     * are configured. The reads of the thread are not pinned to the primary afterwards.
+     *
+     * Use it for results that are kept, like the select cache does, so no stale rows from a lagging replica are kept.
+     *
+     * @param query the query.
+     * @param reader the reader that maps a row.
+     * @return the mapped rows.
+     */
+    public <T> List<T> queryPrimary(Query query, RowReader<T> reader) {
+
+        return query(query, reader, true);
+    }
+
+    /**
+     * Queries a prepared statement and maps every row with the reader directly from the result set.
+     *
+     * @param query the query.
+     * @param reader the reader that maps a row.
+     * @param primary whether the query is sent to the primary even if read replicas are configured.
+     * @return the mapped rows.
+     */
+    private <T> List<T> query(Query query, RowReader<T> reader, boolean primary) {
+
+        long start = System.nanoTime();
+        long wait = -1;
+        List<T> result = null;
 
-            return new DBResult(resultSet, preparedStatement);
+        try (Connection con = acquireRead(primary)) {
+            long acquired = System.nanoTime();
+            wait = acquired - start;
+            try (PreparedStatement preparedStatement = prepare(query, con);
+                 ResultSet resultSet = preparedStatement.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    rows.add(reader.read(resultSet));
+                }
+
+                result = rows;
+            } finally {
+                if (metrics != MetricsRecorder.NOOP) {
+                    String sql = query.sql();
+                    recordQuery(sql, acquired, result != null);
+                    if (result != null) {
+                        metrics.rowsReturned(sql, result.size());
+                    }
+                }
+            }
+
+            return result;
         } catch (SQLException e) {
             if(settings.printExceptions()) {
                 e.printStackTrace();
             }
 
+            markRollbackOnly();
+
             return null;
+        } finally {
+            logSlowQuery(query, start, wait, result != null ? result.size() : -1, result != null);
         }
     }
 
@@ -181,6 +772,225 @@ public class Athena {
         return query(new CustomQuery(query));
     }
 
+    /**
+     * Queries a prepared statement async with the dispatcher.
+     *
+     * @param query the query.
+     * @return the future that is completed with the result of {@link #query(Query)}.
+     */
+    public CompletableFuture<DBResult> queryAsync(Query query) {
+
+        return athenaDispatcher.supply(() -> query(query));
+    }
+
+    /**
+     * Queries a prepared statement and returns an open cursor that reads the rows one by one.
+     * If read replicas are configured, the query is sent to a replica outside of transactions.
+     *
+     * The cursor holds a connection from the pool until it is closed or all rows have been read,
+     * so it should be used with try-with-resources.
+     * If an exception occurs or the connection/query timeout is reached, the DBCursor returned is null.
+     *
+     * @param query the query.
+     * @return the open DBCursor.
+     */
+    public DBCursor cursor(Query query) {
+
+        long start = System.nanoTime();
+        long wait = -1;
+        boolean successful = false;
+
+        Connection con = null;
+        try {
+            con = acquireRead(false);
+            wait = System.nanoTime() - start;
+
+            PreparedStatement preparedStatement = prepare(query, con);
+
+            preparedStatement.setFetchSize(type() == Type.MYSQL ? Integer.MIN_VALUE : settings.fetchSize());
+
+            long executed = System.nanoTime();
+            try {
+                ResultSet resultSet = preparedStatement.executeQuery();
+                successful = true;
+
+                return new DBCursor(con, preparedStatement, resultSet);
+            } finally {
+                recordQuery(query, executed, successful);
+            }
+        } catch (SQLException e) {
+            if(settings.printExceptions()) {
+                e.printStackTrace();
+            }
+
+            markRollbackOnly();
+
+            if (con != null) {
+                try {
+                    con.close();
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+
+            return null;
+        } finally {
+            logSlowQuery(query, start, wait, -1, successful);
+        }
+    }
+
+    /**
+     * Queries a prepared statement and returns the rows as a lazily read stream.
+     *
+     * Only the rows that are currently processed are held in memory.
+     * The stream holds a connection from the pool until it is closed or all rows have been read,
+     * so it should be used with try-with-resources.
+     * If an exception occurs or the connection/query timeout is reached, the stream returned is empty.
+     *
+     * @param query the query.
+     * @return the stream of rows.
+     */
+    public Stream<DBRow> stream(Query query) {
+
+        DBCursor cursor = cursor(query);
+
+        return cursor != null ? cursor.stream() : Stream.empty();
+    }
+
+    /**
+     * Prepares the statement of the query.
+     * The queries print and swallow their exceptions, so a missing statement is turned into an exception here.
+     *
+     * @param query the query.
+     * @param con the connection.
+     * @return the prepared statement.
+     * @throws SQLException if the statement could not be prepared.
+     */
+    private static PreparedStatement prepare(Query query, Connection con) throws SQLException {
+
+        PreparedStatement preparedStatement = query.prepareStatement(con);
+        if (preparedStatement == null) {
+            throw new SQLException("Could not prepare statement: " + query.sql());
+        }
+
+        return preparedStatement;
+    }
+
+    /**
+     * Marks the running transaction of the current thread as rollback only.
+     */
+    private void markRollbackOnly() {
+
+        Transaction current = transaction.get();
+        if (current != null) {
+            current.setRollbackOnly();
+        }
+    }
+
+    /**
+     * Takes a connection to the primary from the pool and records the time it took.
+     * Inside a transaction the pinned connection of the transaction is returned.
+     * If there are read replicas, the reads of the current thread stay on the primary for the read-your-writes window.
+     * Only the thread that wrote is pinned, reads after an async or write-behind write can still go to a lagging replica.
+     *
+     * @return the connection.
+     * @throws SQLException if a database access error occurs or the connection timeout is reached.
+     */
+    private Connection acquire() throws SQLException {
+
+        Transaction current = transaction.get();
+        if (current != null) {
+            return current.connection();
+        }
+
+        long start = System.nanoTime();
+        Connection con = connection.getConnection();
+        metrics.connectionAcquired(System.nanoTime() - start);
+
+        if (connection.hasReplicas() && settings.readYourWritesWindow() > 0) {
+            lastWrite.set(System.nanoTime());
+        }
+
+        return con;
+    }
+
+    /**
+     * Takes a connection for a read from the pool of a read replica and records the time it took.
+     * Inside a transaction, without replicas or inside the read-your-writes window of the current thread,
+     * the connection is taken from the primary.
+     *
+     * @param primary whether the connection is taken from the primary in any case.
+     * @return the connection.
+     * @throws SQLException if a database access error occurs or the connection timeout is reached.
+     */
+    private Connection acquireRead(boolean primary) throws SQLException {
+
+        Transaction current = transaction.get();
+        if (current != null) {
+            return current.connection();
+        }
+
+        long start = System.nanoTime();
+
+        Long written = lastWrite.get();
+        if (written != null && start - written >= TimeUnit.MILLISECONDS.toNanos(settings.readYourWritesWindow())) {
+            lastWrite.remove();
+            written = null;
+        }
+
+        Connection con = primary || written != null ? connection.getConnection() : connection.getReadConnection();
+        metrics.connectionAcquired(System.nanoTime() - start);
+
+        return con;
+    }
+
+    /**
+     * Records the execution time of a query if a recorder is set.
+     * The SQL string is only built if it is recorded.
+     *
+     * @param query the query.
+     * @param start the start time from System.nanoTime().
+     * @param successful whether the query was executed without an exception.
+     */
+    private void recordQuery(Query query, long start, boolean successful) {
+
+        if (metrics != MetricsRecorder.NOOP) {
+            metrics.queryExecuted(query.sql(), System.nanoTime() - start, successful);
+        }
+    }
+
+    /**
+     * Records the execution time of a statement if a recorder is set.
+     *
+     * @param sql the SQL string of the statement.
+     * @param start the start time from System.nanoTime().
+     * @param successful whether the statement was executed without an exception.
+     */
+    private void recordQuery(String sql, long start, boolean successful) {
+
+        if (metrics != MetricsRecorder.NOOP) {
+            metrics.queryExecuted(sql, System.nanoTime() - start, successful);
+        }
+    }
+
+    /**
+     * Logs the query if it was slow.
+     * The SQL string and the values are only built if the query is logged.
+     *
+     * @param query the query.
+     * @param start the start time from System.nanoTime() before the connection was acquired.
+     * @param wait the time waited for the connection or -1 if no connection was acquired.
+     * @param rows the number of affected or returned rows or -1 if it is unknown.
+     * @param successful whether the query was executed without an exception.
+     */
+    private void logSlowQuery(Query query, long start, long wait, int rows, boolean successful) {
+
+        long nanos = System.nanoTime() - start;
+        if (slowQueryLog.isSlow(nanos)) {
+            slowQueryLog.log(query.sql(), query.parameters(), nanos, wait >= 0 ? wait : nanos, rows, successful);
+        }
+    }
+
     /**
      * Gets the database type of the Athena instance.
      *
@@ -201,6 +1011,56 @@ public class Athena {
         return serializationManager;
     }
 
+    /**
+     * Gets the settings.
+     *
+     * @return the AthenaSettings.
+     */
+    public AthenaSettings settings() {
+
+        return settings;
+    }
+
+    /**
+     * Gets the dispatcher for async executions.
+     *
+     * @return the AthenaDispatcher.
+     */
+    public AthenaDispatcher dispatcher() {
+
+        return athenaDispatcher;
+    }
+
+    /**
+     * Gets the recorder for query metrics.
+     *
+     * @return the MetricsRecorder.
+     */
+    public MetricsRecorder metrics() {
+
+        return metrics;
+    }
+
+    /**
+     * Gets a snapshot of the connection pool of the primary.
+     *
+     * @return the PoolStats or null if Athena is not connected.
+     */
+    public PoolStats poolStats() {
+
+        return connection != null ? connection.poolStats() : null;
+    }
+
+    /**
+     * Gets a snapshot of the connection pools of the read replicas in the order they were added.
+     *
+     * @return the PoolStats of every replica, empty if there are no replicas or Athena is not connected.
+     */
+    public List<PoolStats> replicaPoolStats() {
+
+        return connection != null ? connection.replicaPoolStats() : Collections.emptyList();
+    }
+
     /**
      * Returns whether Athena and the backend connection pool is connected or not.
      *
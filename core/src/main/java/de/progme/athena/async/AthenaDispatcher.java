@@ -19,19 +19,184 @@
 
 package de.progme.athena.async;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Created by Marvin Erkes on 11.10.2015.
+ *
+ * Represents the executor for async operations with the strategy from the settings.
  */
 public class AthenaDispatcher {
 
     /**
-     * The executor service for the async operations.
+     * The logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AthenaDispatcher.class);
+
+    /**
+     * The executor for the async operations.
+     */
+    private final Executor executor;
+
+    /**
+     * Whether the executor is owned by the dispatcher and shut down on close.
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * The backpressure policy for a full queue.
+     */
+    private final Backpressure backpressure;
+
+    /**
+     * The number of operations that are submitted but not started yet.
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    /**
+     * The number of operations that were rejected because the queue was full.
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Creates a dispatcher with a cached thread pool.
+     */
+    public AthenaDispatcher() {
+
+        this.executor = Executors.newCachedThreadPool();
+        this.ownsExecutor = true;
+        this.backpressure = Backpressure.ABORT;
+    }
+
+    /**
+     * Creates a dispatcher with the strategy from the settings.
+     * If the settings contain an executor, it is used instead and not shut down on close.
+     *
+     * @param settings the settings.
      */
-    private ExecutorService executorService = Executors.newCachedThreadPool();
+    public AthenaDispatcher(AthenaSettings settings) {
+
+        this.backpressure = settings.backpressure();
+
+        if (settings.executor() != null) {
+            this.executor = settings.executor();
+            this.ownsExecutor = false;
+            return;
+        }
+
+        this.ownsExecutor = true;
+
+        int threads = settings.dispatcherThreads() > 0 ? settings.dispatcherThreads() : settings.poolSize();
+
+        switch (settings.dispatcherStrategy()) {
+            case CACHED:
+                this.executor = Executors.newCachedThreadPool();
+                break;
+            case VIRTUAL:
+                ExecutorService virtualExecutor = virtualThreadExecutor();
+                this.executor = virtualExecutor != null ? virtualExecutor : boundedExecutor(threads, settings.dispatcherQueueSize());
+                break;
+            default:
+                this.executor = boundedExecutor(threads, settings.dispatcherQueueSize());
+                break;
+        }
+    }
+
+    /**
+     * Creates a fixed thread pool with a bounded queue that applies the backpressure if the queue is full.
+     *
+     * @param threads the number of threads.
+     * @param queueSize the capacity of the queue.
+     * @return the executor.
+     */
+    private ExecutorService boundedExecutor(int threads, int queueSize) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> new Thread(runnable, "Athena-Dispatcher-" + threadCount.incrementAndGet()),
+                this::reject);
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+        return threadPoolExecutor;
+    }
+
+    /**
+     * Creates a virtual thread per task executor if the java version supports it.
+     *
+     * @return the executor or null if virtual threads are not supported.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Virtual threads are not supported by this java version, using a bounded dispatcher");
+            return null;
+        }
+    }
+
+    /**
+     * Handles an operation that does not fit into the full queue of the bounded executor.
+     *
+     * @param runnable the operation.
+     * @param threadPoolExecutor the executor.
+     */
+    private void reject(Runnable runnable, ThreadPoolExecutor threadPoolExecutor) {
+
+        rejectedCount.incrementAndGet();
+
+        if (threadPoolExecutor.isShutdown()) {
+            throw new RejectedExecutionException("Dispatcher is closed");
+        }
+
+        switch (backpressure) {
+            case CALLER_RUNS:
+                runnable.run();
+                break;
+            case BLOCK:
+                try {
+                    threadPoolExecutor.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting for the queue", e);
+                }
+                break;
+            default:
+                throw new RejectedExecutionException("Dispatcher queue is full");
+        }
+    }
+
+    /**
+     * Executes the operation with the executor and tracks the queue depth.
+     *
+     * @param runnable the operation.
+     */
+    private void execute(Runnable runnable) {
+
+        queueDepth.incrementAndGet();
+
+        try {
+            executor.execute(() -> {
+                queueDepth.decrementAndGet();
+                runnable.run();
+            });
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            if (!ownsExecutor) {
+                rejectedCount.incrementAndGet();
+            }
+            throw e;
+        }
+    }
 
     /**
      * Dispatches DispatcherConsumer.execute async.
@@ -40,7 +205,7 @@ public class AthenaDispatcher {
      */
     public void dispatch(DispatcherConsumer consumer) {
 
-        executorService.execute(consumer::execute);
+        execute(consumer::execute);
     }
 
     /**
@@ -51,14 +216,66 @@ public class AthenaDispatcher {
      */
     public Future<?> submit(DispatcherConsumer consumer) {
 
-        return executorService.submit(consumer::execute);
+        FutureTask<Void> task = new FutureTask<>(consumer::execute, null);
+        execute(task);
+
+        return task;
+    }
+
+    /**
+     * Supplies a value async and returns a future that is completed with it.
+     * If the supplier throws an exception or the operation is rejected, the future is completed exceptionally.
+     *
+     * @param supplier the supplier of the value.
+     * @return the future.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+            execute(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Gets the number of operations that are submitted but not started yet.
+     *
+     * @return the queue depth.
+     */
+    public int queueDepth() {
+
+        return queueDepth.get();
+    }
+
+    /**
+     * Gets the number of operations that did not fit into the queue and were handled by the backpressure policy.
+     *
+     * @return the number of rejected operations.
+     */
+    public long rejectedCount() {
+
+        return rejectedCount.get();
     }
 
     /**
      * Closes the executor service.
+     * An executor from the settings is not closed.
      */
     public void close() {
 
-        executorService.shutdown();
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
     }
 }
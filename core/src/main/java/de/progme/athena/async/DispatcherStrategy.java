@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.async;
+
+/**
+ * Represents the strategies the AthenaDispatcher can use to execute async operations.
+ */
+public enum DispatcherStrategy {
+
+    /**
+     * A new thread is created for every operation if no idle thread is available.
+     * The number of threads is not limited.
+     */
+    CACHED,
+
+    /**
+     * A fixed number of threads with a bounded queue.
+     * If the queue is full, the configured Backpressure is applied.
+     */
+    BOUNDED,
+
+    /**
+     * A new virtual thread for every operation. Requires Java 21 or newer, otherwise BOUNDED is used.
+     */
+    VIRTUAL
+}
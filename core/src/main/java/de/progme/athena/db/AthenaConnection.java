@@ -2,11 +2,18 @@ package de.progme.athena.db;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.db.settings.Replica;
+import de.progme.athena.db.settings.ReplicaStrategy;
+import de.progme.athena.metrics.PoolStats;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by Marvin Erkes on 29.09.2015.
@@ -26,10 +33,20 @@ public class AthenaConnection {
     private AthenaSettings settings;
 
     /**
-     * The data source.
+     * The data source of the primary server.
      */
     private HikariDataSource dataSource;
 
+    /**
+     * The data sources of the read replicas.
+     */
+    private List<HikariDataSource> replicas = new ArrayList<>();
+
+    /**
+     * The counter for the round robin replica selection.
+     */
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
     /**
      * Creates a new AthenaConnection instance with the settings.
      *
@@ -48,10 +65,33 @@ public class AthenaConnection {
      */
     private void setup() {
 
+        dataSource = createDataSource(settings.host(), settings.port(), settings.poolName());
+
+        if (type == Type.MYSQL) {
+            List<Replica> replicaSettings = settings.replicas();
+            for (int i = 0; i < replicaSettings.size(); i++) {
+                Replica replica = replicaSettings.get(i);
+
+                replicas.add(createDataSource(replica.host(), replica.port(),
+                        settings.poolName() != null ? settings.poolName() + "-replica-" + i : null));
+            }
+        }
+    }
+
+    /**
+     * Creates the data source and the connection pool for a server.
+     *
+     * @param host the host of the server.
+     * @param port the port of the server.
+     * @param poolName the pool name or null for a generated one.
+     * @return the data source.
+     */
+    private HikariDataSource createDataSource(String host, int port, String poolName) {
+
         HikariConfig config = new HikariConfig();
         config.setDriverClassName(type.getDriver());
         if(type == Type.MYSQL) {
-            config.setJdbcUrl("jdbc:mysql://" + settings.host() + ":" + settings.port() + "/" + settings.database() + "?serverTimezone=UTC");
+            config.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + settings.database() + "?serverTimezone=UTC");
         } else if(type == Type.SQLITE) {
             config.setJdbcUrl("jdbc:sqlite:" + settings.database());
 
@@ -66,15 +106,16 @@ public class AthenaConnection {
         }
         config.setUsername(settings.user());
         config.setPassword(settings.password());
-        config.setPoolName(settings.poolName());
+        config.setPoolName(poolName);
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         config.addDataSourceProperty("useSSL", false);
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
         config.setMaximumPoolSize(settings.poolSize());
         config.setConnectionTimeout(settings.getQueryTimeout());
 
-        dataSource = new HikariDataSource(config);
+        return new HikariDataSource(config);
     }
 
     /**
@@ -88,11 +129,119 @@ public class AthenaConnection {
         return dataSource.getConnection();
     }
 
+    /**
+     * Gets a connection for a read from a replica chosen by the replica strategy.
+     * If the replica is not reachable, the other replicas and finally the primary are tried.
+     *
+     * @return the Connection.
+     * @throws SQLException if a database access error occurs.
+     */
+    public Connection getReadConnection() throws SQLException {
+
+        if (replicas.isEmpty()) {
+            return getConnection();
+        }
+
+        int first = settings.replicaStrategy() == ReplicaStrategy.LEAST_ACTIVE ? leastActiveReplica()
+                : Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                return replicas.get((first + i) % replicas.size()).getConnection();
+            } catch (SQLException e) {
+                if (settings.printExceptions()) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return getConnection();
+    }
+
+    /**
+     * Gets the index of the replica with the fewest active connections.
+     *
+     * @return the index.
+     */
+    private int leastActiveReplica() {
+
+        int index = 0;
+        int leastActive = Integer.MAX_VALUE;
+
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariPoolMXBean pool = replicas.get(i).getHikariPoolMXBean();
+            int active = pool != null ? pool.getActiveConnections() : Integer.MAX_VALUE;
+
+            if (active < leastActive) {
+                leastActive = active;
+                index = i;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns whether reads are routed to read replicas.
+     *
+     * @return true if there is at least one replica, otherwise false.
+     */
+    public boolean hasReplicas() {
+
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Gets a snapshot of the connection pool of the primary.
+     *
+     * @return the PoolStats or null if the pool is not running.
+     */
+    public PoolStats poolStats() {
+
+        return poolStats(dataSource);
+    }
+
+    /**
+     * Gets a snapshot of the connection pools of the read replicas in the order they were added.
+     *
+     * @return the PoolStats of every replica, empty stats for a pool that is not running.
+     */
+    public List<PoolStats> replicaPoolStats() {
+
+        List<PoolStats> stats = new ArrayList<>(replicas.size());
+        for (HikariDataSource replica : replicas) {
+            PoolStats poolStats = poolStats(replica);
+            stats.add(poolStats != null ? poolStats : new PoolStats(0, 0, 0, 0));
+        }
+
+        return stats;
+    }
+
+    /**
+     * Gets a snapshot of the connection pool of a data source.
+     *
+     * @param dataSource the data source.
+     * @return the PoolStats or null if the pool is not running.
+     */
+    private static PoolStats poolStats(HikariDataSource dataSource) {
+
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return null;
+        }
+
+        return new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(), pool.getThreadsAwaitingConnection(), pool.getTotalConnections());
+    }
+
     /**
      * Closes the data source and the connection pool.
      */
     public void close() {
 
+        for (HikariDataSource replica : replicas) {
+            replica.close();
+        }
+
         dataSource.close();
     }
 
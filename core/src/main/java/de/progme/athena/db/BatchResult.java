@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the result of a batch execution with the update counts of every committed batch.
+ */
+public class BatchResult {
+
+    /**
+     * The update counts of every statement, grouped by the batch they were committed in.
+     */
+    private final List<int[]> updateCounts;
+
+    /**
+     * Whether all batches were committed.
+     */
+    private final boolean successful;
+
+    /**
+     * The generated keys of every committed statement.
+     */
+    private final long[] generatedKeys;
+
+    /**
+     * Creates a new BatchResult without generated keys.
+     *
+     * @param updateCounts the update counts of every committed batch.
+     * @param successful whether all batches were committed.
+     */
+    public BatchResult(List<int[]> updateCounts, boolean successful) {
+
+        this(updateCounts, new long[0], successful);
+    }
+
+    /**
+     * Creates a new BatchResult.
+     *
+     * @param updateCounts the update counts of every committed batch.
+     * @param generatedKeys the generated keys of every committed statement.
+     * @param successful whether all batches were committed.
+     */
+    public BatchResult(List<int[]> updateCounts, long[] generatedKeys, boolean successful) {
+
+        this.updateCounts = updateCounts;
+        this.generatedKeys = generatedKeys;
+        this.successful = successful;
+    }
+
+    /**
+     * Returns whether all batches were committed.
+     * If false, only the batches before the failed one were committed.
+     *
+     * @return true if all batches were committed, otherwise false.
+     */
+    public boolean successful() {
+
+        return successful;
+    }
+
+    /**
+     * Gets the number of committed batches.
+     *
+     * @return the number of batches.
+     */
+    public int batches() {
+
+        return updateCounts.size();
+    }
+
+    /**
+     * Gets the raw JDBC update counts of every statement in the given batch.
+     *
+     * @param batch the index of the batch.
+     * @return the update counts.
+     */
+    public int[] updateCounts(int batch) {
+
+        return updateCounts.get(batch).clone();
+    }
+
+    /**
+     * Gets the number of affected rows in the given batch.
+     * Statements for which the driver reports no count are not included.
+     *
+     * @param batch the index of the batch.
+     * @return the number of affected rows.
+     */
+    public int updateCount(int batch) {
+
+        int count = 0;
+        for (int updateCount : updateCounts.get(batch)) {
+            if (updateCount > 0) {
+                count += updateCount;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the number of affected rows in all batches.
+     *
+     * @return the number of affected rows.
+     */
+    public int updateCount() {
+
+        int count = 0;
+        for (int i = 0; i < updateCounts.size(); i++) {
+            count += updateCount(i);
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the generated keys of all committed statements in the order of the statements.
+     * A statement that did not generate exactly one key has the key 0.
+     * The keys are only read if they were requested.
+     *
+     * @return the generated keys.
+     */
+    public long[] generatedKeys() {
+
+        return generatedKeys.clone();
+    }
+
+    /**
+     * Gets the update counts of all batches.
+     *
+     * @return the update counts as unmodifiable list.
+     */
+    public List<int[]> allUpdateCounts() {
+
+        return Collections.unmodifiableList(updateCounts);
+    }
+}
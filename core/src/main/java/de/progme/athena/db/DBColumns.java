@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the columns of a result set.
+ *
+ * One instance is shared by all rows of a result, so the column names are stored only once.
+ * Numeric and boolean columns are stored unboxed in the rows if the driver reports a fixed java type for them.
+ */
+public class DBColumns {
+
+    /**
+     * Storage kind of columns that are stored as objects.
+     */
+    static final byte OBJECT = 0;
+
+    /**
+     * Storage kind of integral columns that are stored as long.
+     */
+    static final byte LONG = 1;
+
+    /**
+     * Storage kind of floating point columns that are stored as double.
+     */
+    static final byte DOUBLE = 2;
+
+    /**
+     * Storage kind of boolean columns that are stored as long.
+     */
+    static final byte BOOLEAN = 3;
+
+    /**
+     * The column names in the order as selected.
+     */
+    private final String[] names;
+
+    /**
+     * The index of every column name. If a name is selected more than once, the first index is used.
+     */
+    private final Map<String, Integer> indices;
+
+    /**
+     * The JDBC types from java.sql.Types of every column.
+     */
+    private final int[] types;
+
+    /**
+     * The java classes the driver returns for every column.
+     */
+    private final Class<?>[] classes;
+
+    /**
+     * The storage kind of every column.
+     */
+    private final byte[] kinds;
+
+    /**
+     * The index of every column in the storage array of its kind.
+     */
+    private final int[] slots;
+
+    /**
+     * The number of columns that are stored as objects, longs and doubles.
+     */
+    private final int objects, longs, doubles;
+
+    /**
+     * Creates the columns from the given column names, JDBC types and java classes.
+     *
+     * @param names the column names in the order as selected.
+     * @param types the JDBC types.
+     * @param classes the java classes the driver returns or null if they are unknown.
+     */
+    DBColumns(String[] names, int[] types, Class<?>[] classes) {
+
+        this.names = names;
+        this.types = types;
+        this.classes = classes;
+        this.indices = new HashMap<>(names.length * 2);
+        this.kinds = new byte[names.length];
+        this.slots = new int[names.length];
+
+        for (int i = names.length - 1; i >= 0; i--) {
+            indices.put(names[i], i);
+        }
+
+        int objects = 0, longs = 0, doubles = 0;
+        for (int i = 0; i < names.length; i++) {
+            kinds[i] = kind(classes[i]);
+
+            switch (kinds[i]) {
+                case LONG:
+                case BOOLEAN:
+                    slots[i] = longs++;
+                    break;
+                case DOUBLE:
+                    slots[i] = doubles++;
+                    break;
+                default:
+                    slots[i] = objects++;
+                    break;
+            }
+        }
+
+        this.objects = objects;
+        this.longs = longs;
+        this.doubles = doubles;
+    }
+
+    /**
+     * Gets the storage kind for the java class of a column.
+     *
+     * @param clazz the java class or null if it is unknown.
+     * @return the storage kind.
+     */
+    private static byte kind(Class<?> clazz) {
+
+        if (clazz == Integer.class || clazz == Long.class || clazz == Short.class || clazz == Byte.class) {
+            return LONG;
+        }
+
+        if (clazz == Double.class || clazz == Float.class) {
+            return DOUBLE;
+        }
+
+        if (clazz == Boolean.class) {
+            return BOOLEAN;
+        }
+
+        return OBJECT;
+    }
+
+    /**
+     * Reads the columns of the result set.
+     *
+     * @param resultSet the result set.
+     * @return the columns.
+     * @throws SQLException if a database access error occurs.
+     */
+    static DBColumns of(ResultSet resultSet) throws SQLException {
+
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+
+        String[] names = new String[resultSetMetaData.getColumnCount()];
+        int[] types = new int[names.length];
+        Class<?>[] classes = new Class<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = resultSetMetaData.getColumnName(i + 1);
+            types[i] = resultSetMetaData.getColumnType(i + 1);
+            classes[i] = columnClass(resultSetMetaData, i + 1);
+        }
+
+        return new DBColumns(names, types, classes);
+    }
+
+    /**
+     * Gets the java class the driver returns for the column.
+     *
+     * @param resultSetMetaData the meta data.
+     * @param column the column index starting at 1.
+     * @return the class or null if it is unknown.
+     */
+    private static Class<?> columnClass(ResultSetMetaData resultSetMetaData, int column) {
+
+        try {
+            String className = resultSetMetaData.getColumnClassName(column);
+
+            return className != null ? Class.forName(className) : null;
+        } catch (SQLException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the current row of the result set.
+     * Columns with a numeric or boolean java type are read without boxing.
+     *
+     * @param resultSet the result set.
+     * @return the DBRow.
+     * @throws SQLException if a database access error occurs.
+     */
+    DBRow read(ResultSet resultSet) throws SQLException {
+
+        Object[] objectValues = objects > 0 ? new Object[objects] : DBRow.NO_OBJECTS;
+        long[] longValues = longs > 0 ? new long[longs] : DBRow.NO_LONGS;
+        double[] doubleValues = doubles > 0 ? new double[doubles] : DBRow.NO_DOUBLES;
+        boolean[] nulls = null;
+
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case LONG:
+                    longValues[slots[i]] = resultSet.getLong(i + 1);
+                    break;
+                case BOOLEAN:
+                    longValues[slots[i]] = resultSet.getBoolean(i + 1) ? 1 : 0;
+                    break;
+                case DOUBLE:
+                    doubleValues[slots[i]] = resultSet.getDouble(i + 1);
+                    break;
+                default:
+                    objectValues[slots[i]] = resultSet.getObject(i + 1);
+                    continue;
+            }
+
+            if (resultSet.wasNull()) {
+                if (nulls == null) {
+                    nulls = new boolean[kinds.length];
+                }
+                nulls[i] = true;
+            }
+        }
+
+        return new DBRow(this, objectValues, longValues, doubleValues, nulls);
+    }
+
+    /**
+     * Gets the storage kind of the column.
+     *
+     * @param index the index.
+     * @return the storage kind.
+     */
+    byte kind(int index) {
+
+        return kinds[index];
+    }
+
+    /**
+     * Gets the index of the column in the storage array of its kind.
+     *
+     * @param index the index.
+     * @return the index in the storage array.
+     */
+    int slot(int index) {
+
+        return slots[index];
+    }
+
+    /**
+     * Gets the java class the driver returns for the column.
+     *
+     * @param index the index.
+     * @return the class or null if it is unknown.
+     */
+    Class<?> columnClass(int index) {
+
+        return classes[index];
+    }
+
+    /**
+     * Gets the index of the column.
+     *
+     * @param name the column name.
+     * @return the index or -1 if there is no column with this name.
+     */
+    public int index(String name) {
+
+        Integer index = indices.get(name);
+
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Gets the index of the column.
+     *
+     * @param name the column name.
+     * @return the index.
+     * @throws IllegalArgumentException if there is no column with this name.
+     */
+    int indexOrThrow(String name) {
+
+        int index = index(name);
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown column " + name);
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the JDBC type from java.sql.Types of the column at the index.
+     *
+     * @param index the index.
+     * @return the JDBC type.
+     */
+    public int type(int index) {
+
+        return types[index];
+    }
+
+    /**
+     * Gets the name of the column at the index.
+     *
+     * @param index the index.
+     * @return the column name.
+     */
+    public String name(int index) {
+
+        return names[index];
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns.
+     */
+    public int size() {
+
+        return names.length;
+    }
+
+    /**
+     * Gets all column names in the order as selected.
+     *
+     * @return the column names.
+     */
+    public List<String> names() {
+
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+}
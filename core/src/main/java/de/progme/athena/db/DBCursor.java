@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Represents an open result set that reads the rows one by one instead of loading all of them into a DBResult.
+ *
+ * The cursor holds its connection until it is closed or all rows have been read.
+ */
+public class DBCursor implements Iterator<DBRow>, AutoCloseable {
+
+    /**
+     * The connection the cursor holds.
+     */
+    private final Connection connection;
+
+    /**
+     * The prepared statement of the query.
+     */
+    private final PreparedStatement preparedStatement;
+
+    /**
+     * The open result set.
+     */
+    private final ResultSet resultSet;
+
+    /**
+     * The columns of the result set.
+     */
+    private final DBColumns columns;
+
+    /**
+     * The next row or null if it has not been read yet.
+     */
+    private DBRow next;
+
+    /**
+     * Whether the cursor is closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * Creates a new cursor over the result set.
+     *
+     * @param connection the connection the result set belongs to.
+     * @param preparedStatement the prepared statement.
+     * @param resultSet the result set.
+     * @throws SQLException if a database access error occurs.
+     */
+    public DBCursor(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) throws SQLException {
+
+        this.connection = connection;
+        this.preparedStatement = preparedStatement;
+        this.resultSet = resultSet;
+        this.columns = DBColumns.of(resultSet);
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        if (next != null) {
+            return true;
+        }
+
+        if (closed) {
+            return false;
+        }
+
+        try {
+            if (resultSet.next()) {
+                next = columns.read(resultSet);
+                return true;
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Error while reading the next row", e);
+        }
+
+        close();
+
+        return false;
+    }
+
+    @Override
+    public DBRow next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        DBRow row = next;
+        next = null;
+
+        return row;
+    }
+
+    /**
+     * Moves to the next row and opens the binary stream of a column without reading the row into a DBRow.
+     * The cursor stays open until the returned stream is closed, so large objects can be read
+     * in the chunks the driver delivers them.
+     *
+     * @param column the index of the column starting at 1.
+     * @return the stream or null if there is no next row or the value is SQL NULL.
+     */
+    public InputStream binaryStream(int column) {
+
+        if (next != null) {
+            throw new IllegalStateException("The next row has already been read");
+        }
+
+        try {
+            if (!closed && resultSet.next()) {
+                InputStream inputStream = resultSet.getBinaryStream(column);
+                if (inputStream != null) {
+                    return new FilterInputStream(inputStream) {
+
+                        @Override
+                        public void close() throws IOException {
+
+                            try {
+                                super.close();
+                            } finally {
+                                DBCursor.this.close();
+                            }
+                        }
+                    };
+                }
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Error while opening the binary stream", e);
+        }
+
+        close();
+
+        return null;
+    }
+
+    /**
+     * Moves to the next row and opens the character stream of a column without reading the row into a DBRow.
+     * The cursor stays open until the returned reader is closed, so large texts can be read
+     * in the chunks the driver delivers them.
+     *
+     * @param column the index of the column starting at 1.
+     * @return the reader or null if there is no next row or the value is SQL NULL.
+     */
+    public Reader characterStream(int column) {
+
+        if (next != null) {
+            throw new IllegalStateException("The next row has already been read");
+        }
+
+        try {
+            if (!closed && resultSet.next()) {
+                Reader reader = resultSet.getCharacterStream(column);
+                if (reader != null) {
+                    return new FilterReader(reader) {
+
+                        @Override
+                        public void close() throws IOException {
+
+                            try {
+                                super.close();
+                            } finally {
+                                DBCursor.this.close();
+                            }
+                        }
+                    };
+                }
+            }
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Error while opening the character stream", e);
+        }
+
+        close();
+
+        return null;
+    }
+
+    /**
+     * Gets a sequential stream of the remaining rows.
+     * Closing the stream closes the cursor.
+     *
+     * @return the stream.
+     */
+    public Stream<DBRow> stream() {
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Closes the result set, the statement and releases the connection.
+     */
+    @Override
+    public void close() {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            resultSet.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        try {
+            preparedStatement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
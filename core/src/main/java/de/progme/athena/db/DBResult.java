@@ -21,7 +21,6 @@ package de.progme.athena.db;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,6 +38,11 @@ public class DBResult {
      */
     private List<DBRow> rows = new ArrayList<>();
 
+    /**
+     * The columns shared by all rows.
+     */
+    private DBColumns columns;
+
     /**
      * Creates an instance of DBResult.
      *
@@ -48,23 +52,10 @@ public class DBResult {
     public DBResult(ResultSet resultSet, PreparedStatement preparedStatement) {
 
         try {
-            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-            int columnCount = resultSetMetaData.getColumnCount();
-
-            List<String> columns = new ArrayList<>(columnCount);
-            columnCount += 1;
-            for (int i = 1; i < columnCount; i++) {
-                columns.add(resultSetMetaData.getColumnName(i));
-            }
+            columns = DBColumns.of(resultSet);
 
             while (resultSet.next()) {
-                DBRow row = new DBRow();
-
-                for (String column : columns) {
-                    row.add(column, resultSet.getObject(column));
-                }
-
-                rows.add(row);
+                rows.add(columns.read(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -102,6 +93,17 @@ public class DBResult {
         return Collections.unmodifiableList(rows);
     }
 
+    /**
+     * Gets the columns of the result.
+     * Is null when the result could not be read.
+     *
+     * @return the columns.
+     */
+    public DBColumns columns() {
+
+        return columns;
+    }
+
     /**
      * Gets a row from the given index.
      *
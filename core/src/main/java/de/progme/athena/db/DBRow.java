@@ -19,6 +19,8 @@
 
 package de.progme.athena.db;
 
+import java.sql.Types;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -27,23 +29,112 @@ import java.util.Set;
  * Created by Marvin Erkes on 23.08.2015.
  *
  * Represents a table row and it's columns.
+ *
+ * The row only holds its values, the column names are shared by all rows of the same result.
+ * Numeric and boolean values are stored unboxed if the driver reports a fixed java type for their column,
+ * they can be read without boxing with the typed getters like getLong or getDouble.
  */
 public class DBRow {
 
     /**
-     * All values from the row in key-value format.
+     * Shared empty storage arrays for rows without values of a kind.
+     */
+    static final Object[] NO_OBJECTS = new Object[0];
+
+    static final long[] NO_LONGS = new long[0];
+
+    static final double[] NO_DOUBLES = new double[0];
+
+    /**
+     * The columns shared by all rows of the result.
+     * They are only replaced by the deprecated {@link #add(String, Object)}.
+     */
+    private DBColumns columns;
+
+    /**
+     * The values that are stored as objects.
+     */
+    private Object[] objects;
+
+    /**
+     * The integral and boolean values.
+     */
+    private long[] longs;
+
+    /**
+     * The floating point values.
+     */
+    private double[] doubles;
+
+    /**
+     * Marks the unboxed values that are SQL NULL or null if there are none.
+     */
+    private boolean[] nulls;
+
+    /**
+     * Creates a new empty row.
+     *
+     * @deprecated rows are created by the results, this constructor is only kept for {@link #add(String, Object)}.
+     */
+    @Deprecated
+    public DBRow() {
+
+        this(new DBColumns(new String[0], new int[0], new Class<?>[0]), NO_OBJECTS, NO_LONGS, NO_DOUBLES, null);
+    }
+
+    /**
+     * Creates a new row with the shared columns and the values.
+     *
+     * @param columns the columns.
+     * @param objects the values that are stored as objects.
+     * @param longs the integral and boolean values.
+     * @param doubles the floating point values.
+     * @param nulls marks the unboxed values that are SQL NULL or null if there are none.
      */
-    private LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+    DBRow(DBColumns columns, Object[] objects, long[] longs, double[] doubles, boolean[] nulls) {
+
+        this.columns = columns;
+        this.objects = objects;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.nulls = nulls;
+    }
 
     /**
-     * Adds a key and the corresponding value to the hashmap.
+     * Adds a key and the corresponding value to the row or replaces the value if the key already exists.
+     * The row gets its own copy of the columns with all values stored as objects, so every call copies the row.
      *
      * @param key the key.
      * @param value the value.
+     * @deprecated rows are filled by the results, build a map for values that are not read from a result.
      */
+    @Deprecated
     public void add(String key, Object value) {
 
-        values.put(key, value);
+        int index = columns.index(key);
+        int size = index == -1 ? columns.size() + 1 : columns.size();
+
+        String[] names = new String[size];
+        int[] types = new int[size];
+        Object[] values = new Object[size];
+        for (int i = 0; i < columns.size(); i++) {
+            names[i] = columns.name(i);
+            types[i] = columns.type(i);
+            values[i] = getObject(i);
+        }
+
+        if (index == -1) {
+            index = size - 1;
+            names[index] = key;
+            types[index] = Types.JAVA_OBJECT;
+        }
+        values[index] = value;
+
+        this.columns = new DBColumns(names, types, new Class<?>[size]);
+        this.objects = values;
+        this.longs = NO_LONGS;
+        this.doubles = NO_DOUBLES;
+        this.nulls = null;
     }
 
     /**
@@ -55,7 +146,7 @@ public class DBRow {
     @SuppressWarnings("unchecked")
     public <T> T get(String key) {
 
-        return (T) values.get(key);
+        return (T) getObject(key);
     }
 
     /**
@@ -68,7 +159,7 @@ public class DBRow {
     @SuppressWarnings("unchecked")
     public <T> T get(int index) {
 
-        return (T) values.values().toArray()[index];
+        return (T) getObject(index);
     }
 
     /**
@@ -79,18 +170,223 @@ public class DBRow {
      */
     public Object getObject(String key) {
 
-        return values.get(key);
+        int index = columns.index(key);
+
+        return index != -1 ? getObject(index) : null;
     }
 
     /**
      * Gets an Object with the given key.
+     * Unboxed values are boxed to the java type the driver returns for the column.
      *
      * @param index the index.
      * @return the Object from the index.
      */
     public Object getObject(int index) {
 
-        return values.values().toArray()[index];
+        int slot = columns.slot(index);
+
+        switch (columns.kind(index)) {
+            case DBColumns.LONG:
+                if (isNull(index)) {
+                    return null;
+                }
+
+                Class<?> clazz = columns.columnClass(index);
+                long value = longs[slot];
+                if (clazz == Integer.class) {
+                    return (int) value;
+                } else if (clazz == Short.class) {
+                    return (short) value;
+                } else if (clazz == Byte.class) {
+                    return (byte) value;
+                }
+
+                return value;
+            case DBColumns.BOOLEAN:
+                return isNull(index) ? null : longs[slot] != 0;
+            case DBColumns.DOUBLE:
+                if (isNull(index)) {
+                    return null;
+                }
+
+                return columns.columnClass(index) == Float.class ? (Object) (float) doubles[slot] : (Object) doubles[slot];
+            default:
+                return objects[slot];
+        }
+    }
+
+    /**
+     * Gets the value with the given key as long.
+     *
+     * @param key the key.
+     * @return the value or 0 if it is SQL NULL.
+     * @see #getLong(int)
+     */
+    public long getLong(String key) {
+
+        return getLong(columns.indexOrThrow(key));
+    }
+
+    /**
+     * Gets the value from the given index as long.
+     * Numeric values of other types are converted, strings are parsed.
+     *
+     * @param index the index.
+     * @return the value or 0 if it is SQL NULL.
+     */
+    public long getLong(int index) {
+
+        switch (columns.kind(index)) {
+            case DBColumns.LONG:
+            case DBColumns.BOOLEAN:
+                return longs[columns.slot(index)];
+            case DBColumns.DOUBLE:
+                return (long) doubles[columns.slot(index)];
+            default:
+                Object value = objects[columns.slot(index)];
+                if (value == null) {
+                    return 0;
+                } else if (value instanceof Number) {
+                    return ((Number) value).longValue();
+                } else if (value instanceof Boolean) {
+                    return ((Boolean) value) ? 1 : 0;
+                }
+
+                return Long.parseLong(value.toString());
+        }
+    }
+
+    /**
+     * Gets the value with the given key as int.
+     *
+     * @param key the key.
+     * @return the value or 0 if it is SQL NULL.
+     * @see #getLong(int)
+     */
+    public int getInt(String key) {
+
+        return (int) getLong(key);
+    }
+
+    /**
+     * Gets the value from the given index as int.
+     *
+     * @param index the index.
+     * @return the value or 0 if it is SQL NULL.
+     * @see #getLong(int)
+     */
+    public int getInt(int index) {
+
+        return (int) getLong(index);
+    }
+
+    /**
+     * Gets the value with the given key as double.
+     *
+     * @param key the key.
+     * @return the value or 0 if it is SQL NULL.
+     * @see #getDouble(int)
+     */
+    public double getDouble(String key) {
+
+        return getDouble(columns.indexOrThrow(key));
+    }
+
+    /**
+     * Gets the value from the given index as double.
+     * Numeric values of other types are converted, strings are parsed.
+     *
+     * @param index the index.
+     * @return the value or 0 if it is SQL NULL.
+     */
+    public double getDouble(int index) {
+
+        switch (columns.kind(index)) {
+            case DBColumns.LONG:
+            case DBColumns.BOOLEAN:
+                return longs[columns.slot(index)];
+            case DBColumns.DOUBLE:
+                return doubles[columns.slot(index)];
+            default:
+                Object value = objects[columns.slot(index)];
+                if (value == null) {
+                    return 0;
+                } else if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                } else if (value instanceof Boolean) {
+                    return ((Boolean) value) ? 1 : 0;
+                }
+
+                return Double.parseDouble(value.toString());
+        }
+    }
+
+    /**
+     * Gets the value with the given key as boolean.
+     *
+     * @param key the key.
+     * @return the value or false if it is SQL NULL.
+     * @see #getBoolean(int)
+     */
+    public boolean getBoolean(String key) {
+
+        return getBoolean(columns.indexOrThrow(key));
+    }
+
+    /**
+     * Gets the value from the given index as boolean.
+     * Numeric values are true if they are not 0, strings are true if they are 'true' or '1'.
+     *
+     * @param index the index.
+     * @return the value or false if it is SQL NULL.
+     */
+    public boolean getBoolean(int index) {
+
+        switch (columns.kind(index)) {
+            case DBColumns.LONG:
+            case DBColumns.BOOLEAN:
+                return longs[columns.slot(index)] != 0;
+            case DBColumns.DOUBLE:
+                return doubles[columns.slot(index)] != 0;
+            default:
+                Object value = objects[columns.slot(index)];
+                if (value == null) {
+                    return false;
+                } else if (value instanceof Boolean) {
+                    return (Boolean) value;
+                } else if (value instanceof Number) {
+                    return ((Number) value).doubleValue() != 0;
+                }
+
+                return value.toString().equalsIgnoreCase("true") || value.toString().equals("1");
+        }
+    }
+
+    /**
+     * Checks if the value with the given key is SQL NULL.
+     *
+     * @param key the key.
+     * @return true if the value is SQL NULL, otherwise false.
+     */
+    public boolean isNull(String key) {
+
+        return isNull(columns.indexOrThrow(key));
+    }
+
+    /**
+     * Checks if the value from the given index is SQL NULL.
+     *
+     * @param index the index.
+     * @return true if the value is SQL NULL, otherwise false.
+     */
+    public boolean isNull(int index) {
+
+        if (columns.kind(index) == DBColumns.OBJECT) {
+            return objects[columns.slot(index)] == null;
+        }
+
+        return nulls != null && nulls[index];
     }
 
     /**
@@ -101,16 +397,42 @@ public class DBRow {
      */
     public boolean hasKey(String key) {
 
-        return values.containsKey(key);
+        return columns.index(key) != -1;
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the number of columns.
+     */
+    public int size() {
+
+        return columns.size();
+    }
+
+    /**
+     * Gets the columns of the row.
+     *
+     * @return the columns.
+     */
+    public DBColumns columns() {
+
+        return columns;
     }
 
     /**
      * Gets the entriesy.
+     * The entries are a copy of the row in key-value format.
      *
      * @return the entries.
      */
     public Set<Map.Entry<String, Object>> entries() {
 
-        return values.entrySet();
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            entries.putIfAbsent(columns.name(i), getObject(i));
+        }
+
+        return Collections.unmodifiableMap(entries).entrySet();
     }
 }
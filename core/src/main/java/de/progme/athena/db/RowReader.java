@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Represents a reader that maps the current row of a result set directly to an object without a DBRow.
+ */
+@FunctionalInterface
+public interface RowReader<T> {
+
+    /**
+     * Reads the current row of the result set.
+     *
+     * @param resultSet the result set positioned on the row.
+     * @return the object.
+     * @throws SQLException if a database access error occurs.
+     */
+    T read(ResultSet resultSet) throws SQLException;
+}
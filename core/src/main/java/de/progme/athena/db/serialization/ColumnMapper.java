@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.exception.SQLSerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * Represents the resolved metadata of a single field with the Column annotation.
+ *
+ * The annotation is read and the accessors are resolved only once when the mapper is created.
+ */
+public class ColumnMapper {
+
+    /**
+     * The mapped field.
+     */
+    private final Field field;
+
+    /**
+     * The column name in the database table.
+     */
+    private final String name;
+
+    /**
+     * The SQL type of the column.
+     */
+    private final Column.Type type;
+
+    /**
+     * The options of the column.
+     */
+    private final Column.Option[] options;
+
+    /**
+     * Whether the column is part of the primary key.
+     */
+    private final boolean primaryKey;
+
+    /**
+     * Whether the column is an auto increment column.
+     */
+    private final boolean autoIncrement;
+
+    /**
+     * Whether the column has a unique index.
+     */
+    private final boolean unique;
+
+    /**
+     * Whether the column is left out of selects.
+     */
+    private final boolean lazy;
+
+    /**
+     * The getter handle with the type (Object)Object.
+     */
+    private final MethodHandle getter;
+
+    /**
+     * The setter handle with the type (Object,Object)void or null if the field is final.
+     */
+    private final MethodHandle setter;
+
+    /**
+     * The setter handle with the exact field type (Object,fieldType)void or null if the field is final.
+     */
+    private final MethodHandle typedSetter;
+
+    /**
+     * The value of the field before it is set, null or the zero value of a primitive type.
+     */
+    private final Object defaultValue;
+
+    /**
+     * Creates a new column mapper for the given field.
+     *
+     * @param field the field with the Column annotation.
+     */
+    ColumnMapper(Field field) {
+
+        Column column = field.getAnnotation(Column.class);
+
+        this.field = field;
+        this.name = column.name().equals("") ? field.getName() : column.name();
+        this.type = column.text() && field.getType() == String.class ? Column.Type.TEXT : Column.Type.typeFromClass(field.getType());
+        this.options = column.options();
+        this.primaryKey = Column.Option.PRIMARY_KEY.isOption(options);
+        this.autoIncrement = Column.Option.AUTO_INCREMENT.isOption(options);
+        this.unique = Column.Option.UNIQUE.isOption(options);
+        this.lazy = column.lazy() && !primaryKey;
+
+        if (!isSupportedLargeObject(type, field.getType())) {
+            throw new SQLSerializationException("Field " + field.getName() + " of type " + field.getType().getName()
+                    + " cannot be mapped, large objects have to be byte[], ByteBuffer, InputStream or Reader!");
+        }
+
+        field.setAccessible(true);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            this.getter = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            MethodHandle fieldSetter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+
+            this.setter = fieldSetter == null ? null : fieldSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.typedSetter = fieldSetter == null ? null : fieldSetter.asType(MethodType.methodType(void.class, Object.class, field.getType()));
+        } catch (IllegalAccessException e) {
+            throw new SQLSerializationException("Cannot access field " + field.getName() + ": " + e.getMessage(), e);
+        }
+
+        this.defaultValue = field.getType().isPrimitive() ? Array.get(Array.newInstance(field.getType(), 1), 0) : null;
+    }
+
+    /**
+     * Returns whether a field can hold the values of its large object column.
+     * The values are read as byte[] or String, so the field has to accept one of the handles created from them.
+     *
+     * @param type the column type.
+     * @param fieldType the field type.
+     * @return true if the column is no large object or the field type is supported, otherwise false.
+     */
+    private static boolean isSupportedLargeObject(Column.Type type, Class<?> fieldType) {
+
+        switch (type) {
+            case BLOB:
+                return fieldType == byte[].class || fieldType == ByteBuffer.class || fieldType.isAssignableFrom(ByteArrayInputStream.class);
+            case TEXT:
+                return fieldType == String.class || fieldType.isAssignableFrom(StringReader.class);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Gets the value of the field from the given object.
+     *
+     * @param object the object.
+     * @return the value of the field.
+     */
+    public Object get(Object object) {
+
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (Throwable t) {
+            throw new SQLSerializationException("Cannot read field " + field.getName() + ": " + t.getMessage());
+        }
+    }
+
+    /**
+     * Sets the field of the given object to the value.
+     * Numbers from the database are converted to the type of the field.
+     *
+     * @param object the object.
+     * @param value the value.
+     */
+    public void set(Object object, Object value) {
+
+        if (setter == null) {
+            throw new SQLSerializationException("Field " + field.getName() + " is final!");
+        }
+
+        try {
+            setter.invokeExact(object, convert(value));
+        } catch (Throwable t) {
+            throw new SQLSerializationException("Cannot write field " + field.getName() + ": " + t.getMessage());
+        }
+    }
+
+    /**
+     * Converts a value from the database to the type of the field if needed.
+     * Large objects are read into memory and handed to InputStream, Reader and ByteBuffer fields
+     * as handles over the copied data, so they stay readable after the connection is released.
+     *
+     * @param value the value.
+     * @return the converted value.
+     */
+    Object convert(Object value) {
+
+        if (value == null) {
+            return null;
+        }
+
+        Class<?> fieldType = field.getType();
+        if (fieldType.isInstance(value)) {
+            return value;
+        }
+
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            switch (type) {
+                case INTEGER:
+                    return number.intValue();
+                case LONG:
+                    return number.longValue();
+                case DOUBLE:
+                    return number.doubleValue();
+                case FLOAT:
+                    return number.floatValue();
+                case BYTE:
+                    return number.byteValue();
+                case SHORT:
+                    return number.shortValue();
+                case BOOLEAN:
+                    return number.intValue() != 0;
+                default:
+                    break;
+            }
+        }
+
+        if (value instanceof String && type == Column.Type.BOOLEAN) {
+            return Boolean.parseBoolean((String) value);
+        }
+
+        try {
+            if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                value = blob.getBytes(1, (int) blob.length());
+            } else if (value instanceof Clob) {
+                Clob clob = (Clob) value;
+                value = clob.getSubString(1, (int) clob.length());
+            }
+        } catch (SQLException e) {
+            throw new SQLSerializationException("Cannot read large object of field " + field.getName() + ": " + e.getMessage());
+        }
+
+        if (fieldType.isInstance(value)) {
+            return value;
+        }
+
+        if (type == Column.Type.BLOB) {
+            byte[] bytes;
+            if (value instanceof byte[]) {
+                bytes = (byte[]) value;
+            } else if (value instanceof String) {
+                bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            } else {
+                throw new SQLSerializationException("Cannot convert " + value.getClass().getName() + " to field " + field.getName() + "!");
+            }
+
+            if (fieldType == byte[].class) {
+                return bytes;
+            }
+            if (fieldType == ByteBuffer.class) {
+                return ByteBuffer.wrap(bytes);
+            }
+            return new ByteArrayInputStream(bytes);
+        }
+
+        if (type == Column.Type.TEXT && fieldType.isAssignableFrom(StringReader.class)) {
+            return new StringReader(value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : value.toString());
+        }
+
+        return value;
+    }
+
+    /**
+     * Gets the setter handle with the exact field type, so primitives can be set without boxing.
+     *
+     * @return the handle with the type (Object,fieldType)void or null if the field is final.
+     */
+    MethodHandle typedSetter() {
+
+        return typedSetter;
+    }
+
+    /**
+     * Gets the value of the field before it is set.
+     *
+     * @return null or the zero value of a primitive type.
+     */
+    Object defaultValue() {
+
+        return defaultValue;
+    }
+
+    /**
+     * Gets the mapped field.
+     *
+     * @return the field.
+     */
+    public Field field() {
+
+        return field;
+    }
+
+    /**
+     * Gets the column name.
+     *
+     * @return the column name.
+     */
+    public String name() {
+
+        return name;
+    }
+
+    /**
+     * Gets the SQL type of the column.
+     *
+     * @return the type.
+     */
+    public Column.Type type() {
+
+        return type;
+    }
+
+    /**
+     * Gets the column options.
+     *
+     * @return the options.
+     */
+    public Column.Option[] options() {
+
+        return options;
+    }
+
+    /**
+     * Returns whether the column is part of the primary key.
+     *
+     * @return true if it is a primary key column, otherwise false.
+     */
+    public boolean isPrimaryKey() {
+
+        return primaryKey;
+    }
+
+    /**
+     * Returns whether the column is an auto increment column.
+     *
+     * @return true if it is an auto increment column, otherwise false.
+     */
+    public boolean isAutoIncrement() {
+
+        return autoIncrement;
+    }
+
+    /**
+     * Returns whether the column is left out of selects and only loaded on request.
+     *
+     * @return true if it is a lazy column, otherwise false.
+     */
+    public boolean isLazy() {
+
+        return lazy;
+    }
+
+    /**
+     * Returns whether the column has a unique index.
+     *
+     * @return true if it is a unique column, otherwise false.
+     */
+    public boolean isUnique() {
+
+        return unique;
+    }
+
+    /**
+     * Returns whether the field can be set. Final fields can not be set.
+     *
+     * @return true if the field can be set, otherwise false.
+     */
+    public boolean isWritable() {
+
+        return setter != null;
+    }
+}
@@ -19,10 +19,15 @@
 
 package de.progme.athena.db.serialization;
 
+import java.util.*;
+
 /**
  * Created by Marvin Erkes on 11.10.2015.
  *
- * Represents a condition for a query with a column, an operator and a value.
+ * Represents a condition for a query with a column, an operator and its values.
+ *
+ * Most operators take one value, BETWEEN takes two, IN and NOT IN take any number
+ * and IS NULL and IS NOT NULL take none. Every value is bound to its own placeholder with the setter of its type.
  */
 public class Condition {
 
@@ -37,22 +42,116 @@ public class Condition {
     private final Operator operator;
 
     /**
-     * The value for the condition.
+     * The values for the condition.
      */
-    private final String value;
+    private final List<Object> values;
 
     /**
-     * Creates a new condition with the given values.
+     * Creates a new condition with the given value.
+     * A null value is bound as SQL NULL, which never compares equal, so {@link #isNull(String)} has to be used to match it.
      *
      * @param column the column name.
      * @param operator the operator.
      * @param value the value.
      */
-    public Condition(String column, Operator operator, String value) {
+    public Condition(String column, Operator operator, Object value) {
+
+        this(column, operator, Collections.singletonList(value));
+    }
+
+    /**
+     * Creates a new condition with the given values.
+     *
+     * @param column the column name.
+     * @param operator the operator.
+     * @param values the values.
+     * @throws IllegalArgumentException if the values are null or their number does not fit the operator.
+     */
+    public Condition(String column, Operator operator, List<?> values) {
+
+        if (values == null) {
+            // a null literal resolves to this constructor instead of the one with a single value
+            throw new IllegalArgumentException("Values of " + column + " are null, use Condition.isNull or Condition.isNotNull to match SQL NULL");
+        }
+
+        if (operator.arity != -1 && values.size() != operator.arity) {
+            throw new IllegalArgumentException("Operator " + operator + " needs " + operator.arity + " values but got " + values.size());
+        }
 
         this.column = column;
         this.operator = operator;
-        this.value = value;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    /**
+     * Creates a condition that matches if the column has one of the values.
+     *
+     * @param column the column name.
+     * @param values the values.
+     * @return the condition.
+     */
+    public static Condition in(String column, Collection<?> values) {
+
+        return new Condition(column, Operator.IN, new ArrayList<>(values));
+    }
+
+    /**
+     * Creates a condition that matches if the column has none of the values.
+     *
+     * @param column the column name.
+     * @param values the values.
+     * @return the condition.
+     */
+    public static Condition notIn(String column, Collection<?> values) {
+
+        return new Condition(column, Operator.NOT_IN, new ArrayList<>(values));
+    }
+
+    /**
+     * Creates a condition that matches if the column is between both values inclusive.
+     *
+     * @param column the column name.
+     * @param from the lower bound.
+     * @param to the upper bound.
+     * @return the condition.
+     */
+    public static Condition between(String column, Object from, Object to) {
+
+        return new Condition(column, Operator.BETWEEN, Arrays.asList(from, to));
+    }
+
+    /**
+     * Creates a condition that matches if the column matches the pattern with the wildcards '%' and '_'.
+     *
+     * @param column the column name.
+     * @param pattern the pattern.
+     * @return the condition.
+     */
+    public static Condition like(String column, String pattern) {
+
+        return new Condition(column, Operator.LIKE, pattern);
+    }
+
+    /**
+     * Creates a condition that matches if the column is SQL NULL.
+     *
+     * @param column the column name.
+     * @return the condition.
+     */
+    public static Condition isNull(String column) {
+
+        return new Condition(column, Operator.IS_NULL, Collections.emptyList());
+    }
+
+    /**
+     * Creates a condition that matches if the column is not SQL NULL.
+     *
+     * @param column the column name.
+     * @return the condition.
+     */
+    public static Condition isNotNull(String column) {
+
+        return new Condition(column, Operator.IS_NOT_NULL, Collections.emptyList());
     }
 
     /**
@@ -76,13 +175,54 @@ public class Condition {
     }
 
     /**
-     * Gets the value.
+     * Gets the first value.
      *
-     * @return the value.
+     * @return the value or null if the operator takes no values.
      */
-    public String value() {
+    public Object value() {
 
-        return value;
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Gets all values in the order of their placeholders.
+     *
+     * @return the values.
+     */
+    public List<Object> values() {
+
+        return values;
+    }
+
+    /**
+     * Gets the SQL string of the condition with a placeholder for every value.
+     * An empty IN list never matches and an empty NOT IN list always matches.
+     *
+     * @return the SQL string.
+     */
+    public String sql() {
+
+        switch (operator) {
+            case IN:
+            case NOT_IN:
+                if (values.isEmpty()) {
+                    return operator == Operator.IN ? "1=0" : "1=1";
+                }
+
+                StringBuilder sb = new StringBuilder(column).append(operator.sql()).append('(');
+                for (int i = 0; i < values.size(); i++) {
+                    sb.append(i > 0 ? ",?" : "?");
+                }
+
+                return sb.append(')').toString();
+            case BETWEEN:
+                return column + operator.sql() + "? AND ?";
+            case IS_NULL:
+            case IS_NOT_NULL:
+                return column + operator.sql();
+            default:
+                return column + operator.sql() + "?";
+        }
     }
 
     /**
@@ -95,13 +235,30 @@ public class Condition {
         LESS("<"),
         NOT_EQUAL("!="),
         GREATER_EQUAL(">="),
-        LESS_EQUAL("<=");
+        LESS_EQUAL("<="),
+        IN(" IN ", -1),
+        NOT_IN(" NOT IN ", -1),
+        BETWEEN(" BETWEEN ", 2),
+        LIKE(" LIKE "),
+        IS_NULL(" IS NULL", 0),
+        IS_NOT_NULL(" IS NOT NULL", 0);
 
         private String sql;
 
+        /**
+         * The number of values the operator takes or -1 for any number.
+         */
+        private int arity;
+
         Operator(String sql) {
 
+            this(sql, 1);
+        }
+
+        Operator(String sql, int arity) {
+
             this.sql = sql;
+            this.arity = arity;
         }
 
         /**
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.db.RowReader;
+import de.progme.athena.db.serialization.exception.SQLSerializationException;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Represents a reader that maps the rows of a result set directly to objects of a class with the Table annotation.
+ *
+ * The selected columns are bound to the fields by their index once per result set. Numeric primitive fields are read
+ * with the typed getters of the result set and set with exact typed handles, so they are never boxed.
+ * Classes that are mapped by their constructor get all values at once instead.
+ *
+ * A reader is bound to one result set at a time and must not be shared between threads.
+ */
+public class EntityReader<T> implements RowReader<T> {
+
+    /**
+     * The mapper of the class.
+     */
+    private final TableMapper<T> mapper;
+
+    /**
+     * The result set the readers are bound to.
+     */
+    private ResultSet boundResultSet;
+
+    /**
+     * The readers of the selected columns that are mapped.
+     */
+    private ColumnReader[] readers;
+
+    /**
+     * Creates a new reader for the class of the mapper.
+     *
+     * @param mapper the mapper.
+     */
+    public EntityReader(TableMapper<T> mapper) {
+
+        this.mapper = mapper;
+    }
+
+    @Override
+    public T read(ResultSet resultSet) throws SQLException {
+
+        if (resultSet != boundResultSet) {
+            bind(resultSet.getMetaData());
+            boundResultSet = resultSet;
+        }
+
+        try {
+            if (mapper.isImmutable()) {
+                Object[] values = new Object[mapper.columns().size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = mapper.columns().get(i).defaultValue();
+                }
+
+                for (ColumnReader reader : readers) {
+                    Object value = reader.column.convert(resultSet.getObject(reader.index));
+                    if (value != null) {
+                        values[reader.position] = value;
+                    }
+                }
+
+                return mapper.newInstance(values);
+            }
+
+            T object = mapper.newInstance();
+            for (ColumnReader reader : readers) {
+                reader.read(resultSet, object);
+            }
+
+            return object;
+        } catch (SQLException | SQLSerializationException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new SQLSerializationException("Cannot map row to " + mapper.type().getName() + ": " + t.getMessage());
+        }
+    }
+
+    /**
+     * Binds the selected columns to the fields.
+     * Columns without a field and final fields of classes that are not mapped by their constructor are skipped.
+     *
+     * @param resultSetMetaData the meta data of the result set.
+     * @throws SQLException if a database access error occurs.
+     */
+    private void bind(ResultSetMetaData resultSetMetaData) throws SQLException {
+
+        ColumnReader[] readers = new ColumnReader[resultSetMetaData.getColumnCount()];
+        int count = 0;
+
+        for (int i = 1; i <= readers.length; i++) {
+            ColumnMapper column = mapper.column(resultSetMetaData.getColumnName(i));
+            if (column == null || (!mapper.isImmutable() && !column.isWritable())) {
+                continue;
+            }
+
+            readers[count++] = new ColumnReader(column, i, mapper.columns().indexOf(column));
+        }
+
+        this.readers = count == readers.length ? readers : Arrays.copyOf(readers, count);
+    }
+
+    /**
+     * Represents the binding of a selected column to its field.
+     */
+    private static final class ColumnReader {
+
+        private final ColumnMapper column;
+
+        private final int index;
+
+        private final int position;
+
+        private final Class<?> type;
+
+        private final MethodHandle setter;
+
+        private ColumnReader(ColumnMapper column, int index, int position) {
+
+            this.column = column;
+            this.index = index;
+            this.position = position;
+            this.type = column.field().getType();
+            this.setter = column.typedSetter();
+        }
+
+        /**
+         * Reads the column from the result set into the field of the object.
+         *
+         * @param resultSet the result set.
+         * @param object the object.
+         * @throws Throwable if the column cannot be read or the field cannot be set.
+         */
+        private void read(ResultSet resultSet, Object object) throws Throwable {
+
+            if (type == long.class) {
+                setter.invokeExact(object, resultSet.getLong(index));
+            } else if (type == int.class) {
+                setter.invokeExact(object, resultSet.getInt(index));
+            } else if (type == double.class) {
+                setter.invokeExact(object, resultSet.getDouble(index));
+            } else if (type == float.class) {
+                setter.invokeExact(object, resultSet.getFloat(index));
+            } else if (type == short.class) {
+                setter.invokeExact(object, resultSet.getShort(index));
+            } else if (type == byte.class) {
+                setter.invokeExact(object, resultSet.getByte(index));
+            } else {
+                // booleans are stored as text by some drivers, so they are parsed by the converter
+                column.set(object, resultSet.getObject(index));
+            }
+        }
+    }
+}
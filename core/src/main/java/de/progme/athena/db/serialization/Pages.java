@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Represents an iterator over the pages of a table with keyset pagination.
+ *
+ * Every page is selected with a condition on the last key of the previous page instead of an offset,
+ * so every page costs the same as the first one if the key column is indexed.
+ * The key column has to be unique, rows with the same key on a page boundary would be skipped otherwise.
+ * If a page cannot be selected, hasNext throws an IllegalStateException instead of ending the iteration early.
+ */
+public class Pages<T> implements Iterator<List<T>> {
+
+    /**
+     * The serialization manager used to select the pages.
+     */
+    private final SerializationManager serializationManager;
+
+    /**
+     * The template class.
+     */
+    private final Class<T> clazz;
+
+    /**
+     * The maximum number of rows per page.
+     */
+    private final int pageSize;
+
+    /**
+     * The sort order on the key column.
+     */
+    private final Order order;
+
+    /**
+     * The key column.
+     */
+    private final ColumnMapper key;
+
+    /**
+     * The conditions with an extra slot at the end for the seek condition.
+     */
+    private final Condition[] conditions;
+
+    /**
+     * The next page or null if it has not been selected yet.
+     */
+    private List<T> next;
+
+    /**
+     * The key of the last row of the previous page or null if there is no previous page.
+     */
+    private Object lastKey;
+
+    /**
+     * Whether the last page has been selected.
+     */
+    private boolean done = false;
+
+    /**
+     * Creates a new iterator over the pages.
+     *
+     * @param serializationManager the serialization manager.
+     * @param clazz the template class.
+     * @param pageSize the maximum number of rows per page.
+     * @param order the sort order on the key column.
+     * @param key the key column.
+     * @param conditions the conditions for the SQL SELECT.
+     */
+    Pages(SerializationManager serializationManager, Class<T> clazz, int pageSize, Order order, ColumnMapper key, Condition... conditions) {
+
+        this.serializationManager = serializationManager;
+        this.clazz = clazz;
+        this.pageSize = pageSize;
+        this.order = order;
+        this.key = key;
+        this.conditions = Arrays.copyOf(conditions, conditions.length + 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        if (next != null) {
+            return true;
+        }
+
+        if (done) {
+            return false;
+        }
+
+        Condition[] pageConditions = conditions;
+        if (lastKey == null) {
+            pageConditions = Arrays.copyOf(conditions, conditions.length - 1);
+        } else {
+            pageConditions[pageConditions.length - 1] = new Condition(key.name(),
+                    order.type() == Order.Type.DESC ? Condition.Operator.LESS : Condition.Operator.GREATER, lastKey);
+        }
+
+        List<T> page = serializationManager.select(clazz, pageSize, order, null, pageConditions);
+        if (page == null) {
+            throw new IllegalStateException("Could not select the next page of " + clazz.getName());
+        }
+
+        if (page.isEmpty()) {
+            done = true;
+            return false;
+        }
+
+        if (page.size() < pageSize) {
+            done = true;
+        } else {
+            Object value = key.get(page.get(page.size() - 1));
+            if (value == null) {
+                throw new IllegalStateException("Key column " + key.name() + " is null");
+            }
+
+            lastKey = value;
+        }
+
+        next = page;
+
+        return true;
+    }
+
+    @Override
+    public List<T> next() {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        List<T> page = next;
+        next = null;
+
+        return page;
+    }
+
+    /**
+     * Gets a sequential stream of all rows of the remaining pages.
+     * Pages are selected lazily while the stream is consumed.
+     *
+     * @return the stream.
+     */
+    public Stream<T> stream() {
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream);
+    }
+}
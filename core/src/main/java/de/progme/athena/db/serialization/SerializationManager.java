@@ -20,23 +20,27 @@
 package de.progme.athena.db.serialization;
 
 import de.progme.athena.Athena;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.DBCursor;
 import de.progme.athena.db.DBResult;
 import de.progme.athena.db.DBRow;
 import de.progme.athena.db.Type;
 import de.progme.athena.db.serialization.annotation.Column;
 import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.serialization.cache.CacheStats;
+import de.progme.athena.db.serialization.cache.EntityCache;
 import de.progme.athena.db.serialization.exception.SQLSerializationException;
-import de.progme.athena.query.core.*;
+import de.progme.athena.db.transaction.Transaction;
+import de.progme.athena.query.PreparedQuery;
+import de.progme.athena.query.Query;
 import de.progme.athena.query.core.*;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Marvin Erkes on 11.10.2015.
@@ -45,15 +49,36 @@ import java.util.*;
  */
 public class SerializationManager {
 
-    private static final DateTimeFormatter MYSQL_DATETIME_FORMATTER = DateTimeFormatter
-            .ofPattern("yyyy/MM/dd HH:mm:ss")
-            .withZone(ZoneOffset.UTC);;
+    /**
+     * The maximum number of keys in one IN list, below the default parameter limit of 999 of SQLite.
+     */
+    private static final int KEY_BATCH_SIZE = 500;
 
     /**
      * The Athena instance.
      */
     private final Athena athena;
 
+    /**
+     * The reusable insert templates keyed by their class.
+     */
+    private final Map<Class<?>, PreparedQuery> insertQueries = new ConcurrentHashMap<>();
+
+    /**
+     * The reusable upsert templates keyed by their class.
+     */
+    private final Map<Class<?>, PreparedQuery> upsertQueries = new ConcurrentHashMap<>();
+
+    /**
+     * The buffer for tables with the WRITE_BEHIND option or null if it was not used yet.
+     */
+    private volatile WriteBehindBuffer writeBehindBuffer;
+
+    /**
+     * The select caches of the tables with a cache size keyed by their class.
+     */
+    private final Map<Class<?>, EntityCache> caches = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance from SerializationManager with the athena instance.
      *
@@ -73,15 +98,11 @@ public class SerializationManager {
      */
     public boolean create(Class<?> clazz) {
 
-        if (!clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLSerializationException("Table annotation is not present!");
-        }
-
-        Table table = clazz.getAnnotation(Table.class);
-        Table.Option[] options = table.options();
+        TableMapper<?> mapper = TableMapper.of(clazz);
+        Table.Option[] options = mapper.options();
 
         CreateQuery.Builder builder = new CreateQuery.Builder();
-        builder.create(table.name());
+        builder.create(mapper.name());
 
         if(Table.Option.CREATE_IF_NOT_EXISTS.isOption(options)) {
             builder.ifNotExists(true);
@@ -89,38 +110,37 @@ public class SerializationManager {
 
         List<String> primaryKeys = new ArrayList<>();
 
-        for (Field field : clazz.getDeclaredFields()) {
-            if(field.isAnnotationPresent(Column.class)) {
-                Column column = field.getAnnotation(Column.class);
-                Column.Option[] rowOptions = column.options();
-                String name = column.name().equals("") ? field.getName() : column.name();
-
-                Column.Type type = Column.Type.typeFromClass(field.getType());
+        for (ColumnMapper column : mapper.columns()) {
+            Column.Type type = column.type();
 
-                if (type == Column.Type.UNKNOWN) {
-                    continue;
-                }
+            if (type == Column.Type.UNKNOWN) {
+                continue;
+            }
 
-                if (Column.Option.PRIMARY_KEY.isOption(rowOptions)) {
-                    primaryKeys.add(name);
-                }
+            if (column.isPrimaryKey()) {
+                primaryKeys.add(column.name());
+            }
 
-                List<String> rowOptionStrings = new ArrayList<>();
+            List<String> rowOptionStrings = new ArrayList<>();
+            // Only an INTEGER primary key is an alias for the rowid that SQLite generates
+            if (athena.type() == Type.SQLITE && column.isAutoIncrement() && type == Column.Type.LONG) {
+                rowOptionStrings.add(Column.Type.INTEGER.sqlName());
+            } else {
                 rowOptionStrings.add(type.sqlName());
-                for (Column.Option option : rowOptions) {
-                    if (option == Column.Option.PRIMARY_KEY) {
-                        continue;
-                    }
-
-                    if (athena.type() == Type.SQLITE && option == Column.Option.AUTO_INCREMENT) {
-                        continue;
-                    }
+            }
+            for (Column.Option option : column.options()) {
+                if (option == Column.Option.PRIMARY_KEY) {
+                    continue;
+                }
 
-                    rowOptionStrings.add(option.sql());
+                if (athena.type() == Type.SQLITE && option == Column.Option.AUTO_INCREMENT) {
+                    continue;
                 }
 
-                builder.value(name, rowOptionStrings.toArray(new String[rowOptionStrings.size()]));
+                rowOptionStrings.add(option.sql());
             }
+
+            builder.value(column.name(), rowOptionStrings.toArray(new String[rowOptionStrings.size()]));
         }
 
         primaryKeys.forEach(builder::primaryKey);
@@ -140,23 +160,58 @@ public class SerializationManager {
      */
     public <T> List<T> select(Class<T> clazz, int limit, Order order, String groupBy, Condition... conditions) {
 
-        if (!clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLSerializationException("Table annotation is not present!");
-        }
+        return select(clazz, null, limit, order, groupBy, conditions);
+    }
+
+    /**
+     * Selects only the given columns and the primary key from the table given in the template class.
+     * All other fields keep the values of the default constructor.
+     * The template class need the Table annotation and fields need the Column annotation.
+     *
+     * @param clazz the template class.
+     * @param columns the column names that should be selected.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return a automatically filled list of the template class type with the selected fields set.
+     */
+    public <T> List<T> select(Class<T> clazz, String[] columns, Condition... conditions) {
 
-        Table table = clazz.getAnnotation(Table.class);
+        return select(clazz, columns, -1, null, null, conditions);
+    }
 
-        SelectQuery.Builder builder = new SelectQuery.Builder();
+    /**
+     * Selects the columns from the table given in the template class, the limit, the sort order and conditions.
+     *
+     * @param clazz the template class.
+     * @param columns the column names that should be selected besides the primary key or null for all columns that are not lazy.
+     * @param limit the limit. -1 if no limit is needed.
+     * @param order the sort order.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return a automatically filled list of the template class type with field set.
+     */
+    private <T> List<T> select(Class<T> clazz, String[] columns, int limit, Order order, String groupBy, Condition... conditions) {
 
-        for (Field field : clazz.getDeclaredFields()) {
-            if(field.isAnnotationPresent(Column.class)) {
-                Column column = field.getAnnotation(Column.class);
-                String name = column.name().equals("") ? field.getName() : column.name();
-                builder.select(name);
+        TableMapper<T> mapper = TableMapper.of(clazz);
+
+        String[] selects = columns != null ? projection(mapper, columns) : mapper.eagerColumnNames();
+
+        EntityCache cache = athena.currentTransaction() == null ? cache(mapper) : null;
+        List<Object> cacheKey = null;
+        long cacheGeneration = 0;
+        if (cache != null) {
+            cacheKey = cacheKey(columns != null ? selects : null, limit, order, groupBy, conditions);
+
+            @SuppressWarnings("unchecked")
+            List<T> cached = (List<T>) cache.get(cacheKey);
+            if (cached != null) {
+                return copy(mapper, cached);
             }
+
+            cacheGeneration = cache.generation();
         }
 
-        builder.from(table.name());
+        SelectQuery.Builder builder = new SelectQuery.Builder();
+        builder.select(selects);
+        builder.from(mapper.name());
 
         if(limit > 0) {
             builder.limit(limit);
@@ -174,41 +229,291 @@ public class SerializationManager {
             builder.orderBy(order);
         }
 
-        DBResult result = athena.query(builder.build());
-
-        List<T> resultList = new ArrayList<>();
+        long start = System.nanoTime();
+        List<T> resultList;
 
         try {
-            for (DBRow row : result.rows()) {
-                T classInstance = clazz.newInstance();
+            // results that are cached are read from the primary, a lagging replica could return rows older than the last write
+            resultList = cache != null ? athena.queryPrimary(builder.build(), new EntityReader<>(mapper))
+                    : athena.query(builder.build(), new EntityReader<>(mapper));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
 
-                for (Field field : classInstance.getClass().getDeclaredFields()) {
-                    if(field.isAnnotationPresent(Column.class)) {
-                        if(Modifier.isFinal(field.getModifiers())) {
-                            continue;
-                        }
+        if (resultList == null) {
+            return null;
+        }
 
-                        Column column = field.getAnnotation(Column.class);
-                        String name = column.name().equals("") ? field.getName() : column.name();
+        athena.metrics().rowsMapped(clazz, resultList.size(), System.nanoTime() - start);
 
-                        if(!row.hasKey(name)) {
-                            continue;
-                        }
+        if (cache != null) {
+            cache.put(cacheKey, Collections.unmodifiableList(copy(mapper, resultList)), cacheGeneration);
+        }
+
+        return resultList;
+    }
+
+    /**
+     * Selects the objects with the given primary keys from the table given in the template class.
+     * Large key sets are split into IN lists of at most 500 keys, so a bulk lookup needs only a few round trips.
+     * The template class need the Table annotation and exactly one PRIMARY_KEY column.
+     *
+     * @param clazz the template class.
+     * @param ids the primary keys.
+     * @return a automatically filled list of the template class type with field set in no particular order or null if a query failed.
+     */
+    public <T> List<T> selectByIds(Class<T> clazz, Collection<?> ids) {
+
+        TableMapper<T> mapper = TableMapper.of(clazz);
+        if (mapper.primaryKeys().size() != 1) {
+            throw new SQLSerializationException("Exactly one PRIMARY_KEY column is needed to select " + clazz.getName() + " by id!");
+        }
+
+        String key = mapper.primaryKeys().get(0).name();
+
+        List<Object> keys = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<T> resultList = new ArrayList<>(keys.size());
+
+        for (int from = 0; from < keys.size(); from += KEY_BATCH_SIZE) {
+            Condition condition = Condition.in(key, keys.subList(from, Math.min(from + KEY_BATCH_SIZE, keys.size())));
+
+            List<T> batch = select(clazz, -1, (Order) null, null, condition);
+            if (batch == null) {
+                return null;
+            }
+
+            resultList.addAll(batch);
+        }
+
+        return resultList;
+    }
+
+    /**
+     * Gets the primary key columns followed by the given columns without duplicates.
+     *
+     * @param mapper the mapper.
+     * @param columns the column names.
+     * @return the column names that should be selected.
+     */
+    private static String[] projection(TableMapper<?> mapper, String[] columns) {
+
+        Set<String> selects = new LinkedHashSet<>();
+        for (ColumnMapper column : mapper.primaryKeys()) {
+            selects.add(column.name());
+        }
+
+        for (String column : columns) {
+            if (mapper.column(column) == null) {
+                throw new SQLSerializationException("Column " + column + " is not present in " + mapper.type().getName() + "!");
+            }
+
+            selects.add(column);
+        }
+
+        return selects.toArray(new String[0]);
+    }
+
+    /**
+     * Loads the given columns of the objects with one query per batch keyed by the primary key.
+     * Without column names all lazy columns are loaded.
+     * The template class need the Table annotation and exactly one PRIMARY_KEY column.
+     *
+     * @param objects the objects that were selected before.
+     * @param columns the column names that should be loaded.
+     * @return true if ot was successful otherwise false.
+     */
+    public <T> boolean fetch(Collection<T> objects, String... columns) {
+
+        if (objects.isEmpty()) {
+            return true;
+        }
+
+        TableMapper<?> mapper = TableMapper.of(objects.iterator().next().getClass());
+        if (mapper.primaryKeys().size() != 1) {
+            throw new SQLSerializationException("Exactly one PRIMARY_KEY column is needed to fetch columns of " + mapper.type().getName() + "!");
+        }
+
+        ColumnMapper key = mapper.primaryKeys().get(0);
+
+        String[] selects;
+        if (columns.length == 0) {
+            if (mapper.lazyColumns().isEmpty()) {
+                return true;
+            }
+
+            selects = mapper.lazyColumns().stream().map(ColumnMapper::name).toArray(String[]::new);
+            selects = projection(mapper, selects);
+        } else {
+            selects = projection(mapper, columns);
+        }
+
+        Map<String, List<T>> objectsByKey = new LinkedHashMap<>();
+        List<Object> keys = new ArrayList<>();
+        for (T object : objects) {
+            Object value = key.get(object);
+            if (value != null) {
+                objectsByKey.computeIfAbsent(keyString(value), k -> {
+                    keys.add(value);
+                    return new ArrayList<>(1);
+                }).add(object);
+            }
+        }
+
+        int batchSize = Math.min(KEY_BATCH_SIZE, Math.max(1, athena.settings().batchSize()));
+
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<Object> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+
+            SelectQuery.Builder builder = new SelectQuery.Builder();
+            builder.select(selects);
+            builder.from(mapper.name());
+            builder.where(Condition.in(key.name(), batch));
+
+            DBResult result = athena.query(builder.build());
+            if (result == null) {
+                return false;
+            }
+
+            try {
+                for (DBRow row : result.rows()) {
+                    List<T> matches = objectsByKey.get(keyString(row.getObject(key.name())));
+                    if (matches == null) {
+                        continue;
+                    }
 
-                        field.setAccessible(true);
-                        field.set(classInstance, row.getObject(name));
-                        field.setAccessible(false);
+                    for (T object : matches) {
+                        for (String select : selects) {
+                            ColumnMapper column = mapper.column(select);
+                            if (!column.isPrimaryKey() && column.isWritable()) {
+                                column.set(object, row.getObject(select));
+                            }
+                        }
                     }
                 }
+            } catch (Exception e) {
+                if (athena.settings().printExceptions()) {
+                    e.printStackTrace();
+                }
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Opens the binary stream of a large object column of the row of the given object.
+     * The value is not loaded into the field, the stream reads it from an open cursor in the chunks
+     * the driver delivers them, so it should be used with try-with-resources.
+     * This is the way to read large lazy BLOB columns without holding them in memory.
+     *
+     * @param object the object with the Table annotation and exactly one primary key column.
+     * @param column the column name.
+     * @return the stream or null if the row does not exist, the value is SQL NULL or an exception occurs.
+     */
+    public InputStream openBinaryStream(Object object, String column) {
+
+        DBCursor cursor = athena.cursor(streamQuery(object, column));
+        if (cursor == null) {
+            return null;
+        }
 
-                resultList.add(classInstance);
+        try {
+            return cursor.binaryStream(1);
+        } catch (IllegalStateException e) {
+            if (athena.settings().printExceptions()) {
+                e.printStackTrace();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
             return null;
         }
+    }
 
-        return resultList;
+    /**
+     * Opens the character stream of a large text column of the row of the given object.
+     * The value is not loaded into the field, the reader reads it from an open cursor in the chunks
+     * the driver delivers them, so it should be used with try-with-resources.
+     *
+     * @param object the object with the Table annotation and exactly one primary key column.
+     * @param column the column name.
+     * @return the reader or null if the row does not exist, the value is SQL NULL or an exception occurs.
+     */
+    public Reader openCharacterStream(Object object, String column) {
+
+        DBCursor cursor = athena.cursor(streamQuery(object, column));
+        if (cursor == null) {
+            return null;
+        }
+
+        try {
+            return cursor.characterStream(1);
+        } catch (IllegalStateException e) {
+            if (athena.settings().printExceptions()) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Builds the query that selects a single column of the row of the given object by its primary key.
+     *
+     * @param object the object.
+     * @param column the column name.
+     * @return the query.
+     */
+    private Query streamQuery(Object object, String column) {
+
+        TableMapper<?> mapper = TableMapper.of(object.getClass());
+        if (mapper.primaryKeys().size() != 1) {
+            throw new SQLSerializationException("Exactly one PRIMARY_KEY column is needed to stream columns of " + mapper.type().getName() + "!");
+        }
+        if (mapper.column(column) == null) {
+            throw new SQLSerializationException("Column " + column + " is not present in " + mapper.type().getName() + "!");
+        }
+
+        ColumnMapper key = mapper.primaryKeys().get(0);
+
+        return new SelectQuery.Builder()
+                .select(column)
+                .from(mapper.name())
+                .where(new Condition(key.name(), Condition.Operator.EQUAL, key.get(object)))
+                .build();
+    }
+
+    /**
+     * Creates a new instance of the mapped class and sets the fields from the row.
+     *
+     * @param mapper the mapper.
+     * @param row the row.
+     * @return the new instance.
+     */
+    static <T> T map(TableMapper<T> mapper, DBRow row) {
+
+        if (mapper.isImmutable()) {
+            Object[] values = new Object[mapper.columns().size()];
+            for (int i = 0; i < values.length; i++) {
+                ColumnMapper column = mapper.columns().get(i);
+
+                Object value = row.hasKey(column.name()) ? column.convert(row.getObject(column.name())) : null;
+
+                values[i] = value != null ? value : column.defaultValue();
+            }
+
+            return mapper.newInstance(values);
+        }
+
+        T classInstance = mapper.newInstance();
+
+        for (ColumnMapper column : mapper.columns()) {
+            if(!column.isWritable() || !row.hasKey(column.name())) {
+                continue;
+            }
+
+            column.set(classInstance, row.getObject(column.name()));
+        }
+
+        return classInstance;
     }
 
     /**
@@ -253,164 +558,763 @@ public class SerializationManager {
     }
 
     /**
-     * Drops a SQL table from the given template class.
-     * The template class need the Table annotation.
+     * Iterates over the table given in the template class page by page with keyset pagination.
+     * Every page is selected with a GREATER (or LESS for a descending order) condition on the last key
+     * of the previous page instead of an offset, so deep pages cost the same as the first one.
+     *
+     * The key is the column of the order or the primary key if there is no order.
+     * It has to be the only PRIMARY_KEY column or a UNIQUE column that is not lazy, and it must not be null.
      *
      * @param clazz the template class.
-     * @return true if ot was successful otherwise false.
+     * @param pageSize the maximum number of rows per page.
+     * @param order the sort order on the key column or null for the primary key in ascending order.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return the iterator over the pages.
+     * @throws SQLSerializationException if the key column is not present, not unique or lazy.
      */
-    public boolean drop(Class<?> clazz) {
+    public <T> Pages<T> pages(Class<T> clazz, int pageSize, Order order, Condition... conditions) {
 
-        if (!clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLSerializationException("Table annotation is not present!");
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be greater than 0");
         }
 
-        Table table = clazz.getAnnotation(Table.class);
-
-        return athena.execute(new DropQuery.Builder().drop(table.name()).build());
-    }
-
-    /**
-     * Inserts the field of the given class as an object into the SQL table from the given class.
-     * The template class need the Table annotation and fields need the Column annotation.
-     *
-     * @param object the class as an object.
-     * @return true if ot was successful otherwise false.
-     */
-    public boolean insert(Object object) {
+        TableMapper<T> mapper = TableMapper.of(clazz);
 
-        Class<?> clazz = object.getClass();
+        if (order == null) {
+            if (mapper.primaryKeys().size() != 1) {
+                throw new SQLSerializationException("Exactly one PRIMARY_KEY column is needed to page " + clazz.getName() + " without an order!");
+            }
 
-        if (!clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLSerializationException("Table annotation is not present!");
+            order = new Order(mapper.primaryKeys().get(0).name(), Order.Type.ASC);
         }
 
-        Table table = clazz.getAnnotation(Table.class);
-
-        InsertQuery.Builder builder = new InsertQuery.Builder();
-        builder.into(table.name());
+        ColumnMapper key = mapper.column(order.column());
+        if (key == null) {
+            throw new SQLSerializationException("Order column " + order.column() + " is not present in " + clazz.getName() + "!");
+        }
 
-        try {
-            for (Field field : clazz.getDeclaredFields()) {
-                if (field.isAnnotationPresent(Column.class)) {
-                    Column column = field.getAnnotation(Column.class);
-                    String name = column.name().equals("") ? field.getName() : column.name();
+        // rows with the same key on a page boundary would be skipped and a lazy key is never selected
+        if (!key.isUnique() && !(key.isPrimaryKey() && mapper.primaryKeys().size() == 1)) {
+            throw new SQLSerializationException("Order column " + order.column() + " of " + clazz.getName() + " is not unique!");
+        }
 
-                    if(athena.type() == Type.SQLITE && Column.Option.AUTO_INCREMENT.isOption(column.options())) {
-                        continue;
-                    }
+        if (key.isLazy()) {
+            throw new SQLSerializationException("Order column " + order.column() + " of " + clazz.getName() + " is lazy!");
+        }
 
-                    builder.column(name);
-                    field.setAccessible(true);
+        return new Pages<>(this, clazz, pageSize, order, key, conditions);
+    }
 
-                    if (field.get(object) instanceof Instant) {
-                        builder.value(MYSQL_DATETIME_FORMATTER.format((Instant) field.get(object)));
-                    } else {
-                        builder.value(field.get(object).toString());
-                    }
-                    field.setAccessible(false);
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+    /**
+     * Iterates over the table given in the template class page by page on the primary key in ascending order.
+     *
+     * @param clazz the template class.
+     * @param pageSize the maximum number of rows per page.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return the iterator over the pages.
+     * @see #pages(Class, int, Order, Condition...)
+     */
+    public <T> Pages<T> pages(Class<T> clazz, int pageSize, Condition... conditions) {
 
-        return athena.execute(builder.build());
+        return pages(clazz, pageSize, null, conditions);
     }
 
     /**
-     * Deletes rows from the SQL table given in the template class and the conditions.
-     * The template class need the Table annotation.
+     * Creates a parallel scan of the table given in the template class.
+     * The range of the numeric primary key is split into the given number of partitions
+     * that are read concurrently on the dispatcher, each with its own pooled connection.
      *
      * @param clazz the template class.
-     * @param conditions the conditions.
-     * @return true if ot was successful otherwise false.
+     * @param partitions the number of partitions, at most the pool size is useful.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return the scan.
      */
-    public boolean delete(Class<?> clazz, Condition... conditions) {
+    public <T> TableScan<T> scan(Class<T> clazz, int partitions, Condition... conditions) {
 
-        if (!clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLSerializationException("Table annotation is not present!");
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be greater than 0");
         }
 
-        Table table = clazz.getAnnotation(Table.class);
-
-        DeleteQuery.Builder builder = new DeleteQuery.Builder();
-        builder.from(table.name());
+        TableMapper<T> mapper = TableMapper.of(clazz);
 
-        for (Condition condition : conditions) {
-            builder.where(condition);
+        if (mapper.primaryKeys().size() != 1 || !isIntegral(mapper.primaryKeys().get(0).field().getType())) {
+            throw new SQLSerializationException("Exactly one numeric PRIMARY_KEY column is needed to scan " + clazz.getName() + "!");
         }
 
-        return athena.execute(builder.build());
+        return new TableScan<>(athena, mapper, mapper.primaryKeys().get(0), partitions, conditions);
     }
 
     /**
-     * Updates an SQL table and sets the columns in the setColumns array to the values from
-     * the field in the template class where the primary key from the template class matches.
-     *
-     * The template class need the Table annotation and fields need the Column annotation.
+     * Creates a parallel scan of the table given in the template class with one partition per pooled connection.
      *
-     * @param object the template class as an object.
-     * @param setColumns the columns that should be updated.
-     * @param conditions the extra conditions.
-     * @return true if ot was successful otherwise false.
+     * @param clazz the template class.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return the scan.
+     * @see #scan(Class, int, Condition...)
      */
-    public boolean update(Object object, String[] setColumns, Condition... conditions) {
-
-        Class<?> clazz = object.getClass();
+    public <T> TableScan<T> scan(Class<T> clazz, Condition... conditions) {
 
-        if (!clazz.isAnnotationPresent(Table.class)) {
-            throw new SQLSerializationException("Table annotation is not present!");
-        }
-
-        Table table = clazz.getAnnotation(Table.class);
-
-        UpdateQuery.Builder builder = new UpdateQuery.Builder();
-        builder.update(table.name());
+        return scan(clazz, athena.settings().poolSize(), conditions);
+    }
 
-        HashMap<String, String> primaryKeys = new HashMap<>();
+    /**
+     * Returns whether the type is an integral number.
+     *
+     * @param type the type.
+     * @return true if it is an integral number, otherwise false.
+     */
+    private static boolean isIntegral(Class<?> type) {
 
-        try {
-            for (Field field : clazz.getDeclaredFields()) {
-                if(field.isAnnotationPresent(Column.class)) {
-                    Column column = field.getAnnotation(Column.class);
-                    Column.Option[] columnOptions = column.options();
-                    String name = column.name().equals("") ? field.getName() : column.name();
-
-                    if(Column.Option.PRIMARY_KEY.isOption(columnOptions)) {
-                        field.setAccessible(true);
-                        primaryKeys.put(name, field.get(object).toString());
-                        field.setAccessible(false);
-                        continue;
-                    }
+        return type == long.class || type == int.class || type == short.class || type == byte.class
+                || type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+    }
 
-                    if(setColumns != null) {
-                        boolean contains = false;
+    /**
+     * Selects data async with the dispatcher from the table given in the template class,
+     * the limit, the sort order and conditions.
+     *
+     * @param clazz the template class.
+     * @param limit the limit. -1 if no limit is needed.
+     * @param order the sort order.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return the future that is completed with the result of {@link #select(Class, int, Order, String, Condition...)}.
+     */
+    public <T> CompletableFuture<List<T>> selectAsync(Class<T> clazz, int limit, Order order, String groupBy, Condition... conditions) {
 
-                        for (String setColumn : setColumns) {
-                            if (setColumn.equals(name)) {
-                                contains = true;
-                            }
-                        }
+        return athena.dispatcher().supply(() -> select(clazz, limit, order, groupBy, conditions));
+    }
+
+    /**
+     * Selects data async with the dispatcher from the table given in the template class and conditions.
+     *
+     * @param clazz the template class.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return the future that is completed with the result of {@link #select(Class, Condition...)}.
+     */
+    public <T> CompletableFuture<List<T>> selectAsync(Class<T> clazz, Condition... conditions) {
+
+        return selectAsync(clazz, -1, null, null, conditions);
+    }
+
+    /**
+     * Gets the statistics of the select cache of the template class.
+     *
+     * @param clazz the template class.
+     * @return the statistics or null if the table has no cache.
+     */
+    public CacheStats cacheStats(Class<?> clazz) {
+
+        EntityCache cache = cache(TableMapper.of(clazz));
+
+        return cache != null ? cache.stats() : null;
+    }
+
+    /**
+     * Removes all cached select results of the template class.
+     *
+     * @param clazz the template class.
+     */
+    public void invalidate(Class<?> clazz) {
+
+        EntityCache cache = caches.get(clazz);
+        if (cache != null) {
+            cache.invalidate();
+
+            Transaction transaction = athena.currentTransaction();
+            if (transaction != null) {
+                transaction.afterCompletion(cache::invalidate);
+            }
+        }
+    }
+
+    /**
+     * Gets the select cache of the table or creates it if the table has a cache size.
+     *
+     * @param mapper the mapper of the table.
+     * @return the cache or null if the table has no cache.
+     */
+    private EntityCache cache(TableMapper<?> mapper) {
+
+        if (mapper.table().cacheSize() <= 0) {
+            return null;
+        }
+
+        EntityCache cache = caches.get(mapper.type());
+        if (cache == null) {
+            cache = caches.computeIfAbsent(mapper.type(), clazz -> new EntityCache(mapper.table().cacheSize(), mapper.table().cacheExpiry()));
+        }
+
+        return cache;
+    }
+
+    /**
+     * Returns whether writes to the table are buffered.
+     * Inside a transaction writes are always executed directly.
+     *
+     * @param clazz the template class.
+     * @return true if writes are buffered, otherwise false.
+     */
+    private boolean isWriteBehind(Class<?> clazz) {
+
+        return Table.Option.WRITE_BEHIND.isOption(TableMapper.of(clazz).options()) && athena.currentTransaction() == null;
+    }
+
+    /**
+     * Gets the write-behind buffer and creates it on first use.
+     *
+     * @return the buffer.
+     */
+    public WriteBehindBuffer writeBehind() {
+
+        WriteBehindBuffer buffer = writeBehindBuffer;
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = writeBehindBuffer;
+                if (buffer == null) {
+                    buffer = writeBehindBuffer = new WriteBehindBuffer(athena, athena.settings());
+                }
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Writes all buffered inserts and updates of tables with the WRITE_BEHIND option.
+     */
+    public void flush() {
+
+        WriteBehindBuffer buffer = writeBehindBuffer;
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * Writes the buffered writes before a direct write to a table with the WRITE_BEHIND option,
+     * so that all writes reach the database in the order they were made.
+     * Inside a transaction the buffered writes are committed on their own before, they are not rolled back with it.
+     *
+     * @param clazz the template class.
+     */
+    private void flushBefore(Class<?> clazz) {
+
+        WriteBehindBuffer buffer = writeBehindBuffer;
+        if (buffer != null && Table.Option.WRITE_BEHIND.isOption(TableMapper.of(clazz).options())) {
+            buffer.drain();
+        }
+    }
+
+    /**
+     * Writes all buffered inserts and updates and stops the write-behind buffer.
+     */
+    public void close() {
+
+        WriteBehindBuffer buffer = writeBehindBuffer;
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    /**
+     * Builds the cache key of a select from all its parameters.
+     * The condition values keep their types, so 1, 1L and "1" are different keys.
+     *
+     * @param selects the selected columns or null if all columns that are not lazy are selected.
+     * @return the cache key.
+     */
+    private static List<Object> cacheKey(String[] selects, int limit, Order order, String groupBy, Condition... conditions) {
+
+        List<Object> key = new ArrayList<>();
+        key.add(selects != null ? Arrays.asList(selects) : null);
+        key.add(limit);
+        key.add(groupBy);
+        key.add(order != null ? order.column() : null);
+        key.add(order != null ? order.type() : null);
+
+        for (Condition condition : conditions) {
+            key.add(condition.sql());
+            for (Object value : condition.values()) {
+                // arrays are compared by identity, their content is compared as buffer
+                key.add(value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value);
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Copies the objects, so the objects in the select cache are never handed out and cannot be changed by callers.
+     *
+     * @param mapper the mapper.
+     * @param objects the objects.
+     * @return the copies.
+     */
+    private static <T> List<T> copy(TableMapper<T> mapper, List<T> objects) {
+
+        List<T> copies = new ArrayList<>(objects.size());
+        for (T object : objects) {
+            copies.add(mapper.copy(object));
+        }
+
+        return copies;
+    }
+
+    /**
+     * Drops a SQL table from the given template class.
+     * The template class need the Table annotation.
+     *
+     * @param clazz the template class.
+     * @return true if ot was successful otherwise false.
+     */
+    public boolean drop(Class<?> clazz) {
+
+        boolean result = athena.execute(new DropQuery.Builder().drop(TableMapper.of(clazz).name()).build());
+        invalidate(clazz);
+
+        return result;
+    }
+
+    /**
+     * Inserts the field of the given class as an object into the SQL table from the given class.
+     * The template class need the Table annotation and fields need the Column annotation.
+     *
+     * The key the database generates for the AUTO_INCREMENT column is written back to its field.
+     * If the table has the WRITE_BEHIND option, the insert is only buffered and written later without a key.
+     *
+     * @param object the class as an object.
+     * @return true if ot was successful or buffered otherwise false.
+     */
+    public boolean insert(Object object) {
+
+        Query query = insertQuery(object);
+        if (query == null) {
+            return false;
+        }
+
+        if (isWriteBehind(object.getClass())) {
+            return writeBehind().add(object.getClass(), null, query);
+        }
+
+        ColumnMapper generatedKey = TableMapper.of(object.getClass()).generatedKey();
+
+        boolean result;
+        if (generatedKey != null && generatedKey.isWritable()) {
+            long[] keys = athena.executeReturningKeys(query);
+            result = keys != null;
+
+            if (keys != null && keys.length > 0) {
+                generatedKey.set(object, keys[0]);
+            }
+        } else {
+            result = athena.execute(query);
+        }
+
+        invalidate(object.getClass());
+
+        return result;
+    }
+
+    /**
+     * Inserts all objects into the SQL tables from their classes.
+     * The objects are sent in JDBC batches and every batch is committed as one transaction.
+     * The batch size is taken from the settings.
+     * The keys the database generates for AUTO_INCREMENT columns are written back to the fields of the committed objects.
+     *
+     * The template classes need the Table annotation and fields need the Column annotation.
+     *
+     * @param objects the classes as objects.
+     * @return the BatchResult with the update counts of every batch.
+     */
+    public BatchResult insertAll(Collection<?> objects) {
+
+        List<Query> queries = new ArrayList<>(objects.size());
+        Set<Class<?>> classes = new HashSet<>();
+        boolean returnKeys = false;
+        for (Object object : objects) {
+            Query query = insertQuery(object);
+            if (query == null) {
+                return new BatchResult(Collections.emptyList(), false);
+            }
+
+            queries.add(query);
+            if (classes.add(object.getClass())) {
+                returnKeys |= TableMapper.of(object.getClass()).generatedKey() != null;
+            }
+        }
+
+        classes.forEach(this::flushBefore);
+
+        BatchResult result = athena.executeBatch(queries, athena.settings().batchSize(), returnKeys);
+        classes.forEach(this::invalidate);
+
+        if (returnKeys) {
+            long[] keys = result.generatedKeys();
+
+            Iterator<?> iterator = objects.iterator();
+            for (int i = 0; i < keys.length && iterator.hasNext(); i++) {
+                Object object = iterator.next();
+                ColumnMapper generatedKey = TableMapper.of(object.getClass()).generatedKey();
+
+                if (generatedKey != null && generatedKey.isWritable() && keys[i] != 0) {
+                    generatedKey.set(object, keys[i]);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds the insert query for the given object.
+     *
+     * @param object the class as an object.
+     * @return the insert query or null if a field could not be read.
+     */
+    private Query insertQuery(Object object) {
+
+        TableMapper<?> mapper = TableMapper.of(object.getClass());
+
+        PreparedQuery preparedQuery = insertQueries.get(mapper.type());
+        if (preparedQuery == null) {
+            preparedQuery = insertQueries.computeIfAbsent(mapper.type(), clazz -> prepareInsert(mapper));
+        }
+
+        return bind(preparedQuery, mapper, object, false);
+    }
+
+    /**
+     * Binds the field values of the object to the template.
+     *
+     * @param preparedQuery the template.
+     * @param mapper the mapper of the object class.
+     * @param object the class as an object.
+     * @param allColumns whether all columns are bound or only the insertable ones.
+     * @return the query or null if a field could not be read.
+     */
+    private Query bind(PreparedQuery preparedQuery, TableMapper<?> mapper, Object object, boolean allColumns) {
+
+        List<Object> values = new ArrayList<>(preparedQuery.parameterCount());
+
+        try {
+            for (ColumnMapper column : mapper.columns()) {
+                if(!allColumns && !isInsertable(column)) {
+                    continue;
+                }
+
+                values.add(column.get(object));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        return preparedQuery.bind(values);
+    }
 
-                        if(!contains) {
-                            continue;
+    /**
+     * Converts a key value to the string form that is used to compare keys of different java types
+     * like a long field and an integer from the driver.
+     *
+     * @param value the key value.
+     * @return the string form.
+     */
+    private static String keyString(Object value) {
+
+        return value.toString();
+    }
+
+    /**
+     * Inserts the object or updates the existing row with the same primary key or unique column in one statement.
+     * Objects whose AUTO_INCREMENT key is not set yet are inserted and get the generated key written back.
+     *
+     * The template class need the Table annotation and a PRIMARY_KEY or UNIQUE column.
+     *
+     * @param object the class as an object.
+     * @return true if ot was successful or buffered otherwise false.
+     */
+    public boolean upsert(Object object) {
+
+        if (isNew(object)) {
+            return insert(object);
+        }
+
+        Query query = upsertQuery(object);
+        if (query == null) {
+            return false;
+        }
+
+        if (isWriteBehind(object.getClass())) {
+            String key = writeKey(object, null);
+
+            return writeBehind().add(object.getClass(), key != null ? "upsert|" + key : null, query);
+        }
+
+        boolean result = athena.execute(query);
+        invalidate(object.getClass());
+
+        return result;
+    }
+
+    /**
+     * Inserts or updates all objects like {@link #upsert(Object)} with JDBC batches.
+     * Every batch is committed as one transaction, the batch size is taken from the settings.
+     *
+     * @param objects the classes as objects.
+     * @return the BatchResult with the update counts of every batch.
+     */
+    public BatchResult upsertAll(Collection<?> objects) {
+
+        List<Query> queries = new ArrayList<>(objects.size());
+        Set<Class<?>> classes = new HashSet<>();
+        boolean[] inserts = new boolean[objects.size()];
+        boolean returnKeys = false;
+
+        int index = 0;
+        for (Object object : objects) {
+            inserts[index] = isNew(object);
+            returnKeys |= inserts[index];
+
+            Query query = inserts[index] ? insertQuery(object) : upsertQuery(object);
+            if (query == null) {
+                return new BatchResult(Collections.emptyList(), false);
+            }
+
+            queries.add(query);
+            classes.add(object.getClass());
+            index++;
+        }
+
+        classes.forEach(this::flushBefore);
+
+        BatchResult result = athena.executeBatch(queries, athena.settings().batchSize(), returnKeys);
+        classes.forEach(this::invalidate);
+
+        if (returnKeys) {
+            long[] keys = result.generatedKeys();
+
+            Iterator<?> iterator = objects.iterator();
+            for (int i = 0; i < keys.length && iterator.hasNext(); i++) {
+                Object object = iterator.next();
+                ColumnMapper generatedKey = TableMapper.of(object.getClass()).generatedKey();
+
+                if (inserts[i] && generatedKey.isWritable() && keys[i] != 0) {
+                    generatedKey.set(object, keys[i]);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns whether the object is new because its AUTO_INCREMENT key is part of the conflict keys and not set yet.
+     *
+     * @param object the class as an object.
+     * @return true if the object has to be inserted, otherwise false.
+     */
+    private static boolean isNew(Object object) {
+
+        TableMapper<?> mapper = TableMapper.of(object.getClass());
+
+        ColumnMapper generatedKey = mapper.generatedKey();
+        if (generatedKey == null || !mapper.conflictKeys().contains(generatedKey)) {
+            return false;
+        }
+
+        Object value = generatedKey.get(object);
+
+        return value == null || (value instanceof Number && ((Number) value).longValue() == 0);
+    }
+
+    /**
+     * Builds the upsert query for the given object.
+     *
+     * @param object the class as an object.
+     * @return the upsert query or null if a field could not be read.
+     */
+    private Query upsertQuery(Object object) {
+
+        TableMapper<?> mapper = TableMapper.of(object.getClass());
+
+        PreparedQuery preparedQuery = upsertQueries.get(mapper.type());
+        if (preparedQuery == null) {
+            preparedQuery = upsertQueries.computeIfAbsent(mapper.type(), clazz -> prepareUpsert(mapper));
+        }
+
+        return bind(preparedQuery, mapper, object, true);
+    }
+
+    /**
+     * Builds the reusable upsert template for the table of the mapper.
+     *
+     * @param mapper the mapper.
+     * @return the PreparedQuery.
+     */
+    private PreparedQuery prepareUpsert(TableMapper<?> mapper) {
+
+        if (mapper.conflictKeys().isEmpty()) {
+            throw new SQLSerializationException("PRIMARY_KEY or UNIQUE column is not present in " + mapper.type().getName() + "!");
+        }
+
+        UpsertQuery.Builder builder = new UpsertQuery.Builder();
+        builder.type(athena.type());
+        builder.into(mapper.name());
+
+        for (ColumnMapper column : mapper.columns()) {
+            builder.column(column.name());
+            builder.value(null);
+        }
+
+        for (ColumnMapper column : mapper.conflictKeys()) {
+            builder.conflict(column.name());
+        }
+
+        return builder.prepare();
+    }
+
+    /**
+     * Builds the reusable insert template for the table of the mapper.
+     *
+     * @param mapper the mapper.
+     * @return the PreparedQuery.
+     */
+    private PreparedQuery prepareInsert(TableMapper<?> mapper) {
+
+        InsertQuery.Builder builder = new InsertQuery.Builder();
+        builder.into(mapper.name());
+
+        for (ColumnMapper column : mapper.columns()) {
+            if(isInsertable(column)) {
+                builder.column(column.name());
+                builder.value(null);
+            }
+        }
+
+        return builder.prepare();
+    }
+
+    /**
+     * Returns whether a value for the column is inserted.
+     * SQLite generates the values of auto increment columns itself.
+     *
+     * @param column the column.
+     * @return true if a value is inserted, otherwise false.
+     */
+    private boolean isInsertable(ColumnMapper column) {
+
+        return athena.type() != Type.SQLITE || !column.isAutoIncrement();
+    }
+
+    /**
+     * Deletes rows from the SQL table given in the template class and the conditions.
+     * The template class need the Table annotation.
+     *
+     * @param clazz the template class.
+     * @param conditions the conditions.
+     * @return true if ot was successful otherwise false.
+     */
+    public boolean delete(Class<?> clazz, Condition... conditions) {
+
+        flushBefore(clazz);
+
+        DeleteQuery.Builder builder = new DeleteQuery.Builder();
+        builder.from(TableMapper.of(clazz).name());
+
+        for (Condition condition : conditions) {
+            builder.where(condition);
+        }
+
+        boolean result = athena.execute(builder.build());
+        invalidate(clazz);
+
+        return result;
+    }
+
+    /**
+     * Updates an SQL table and sets the columns in the setColumns array to the values from
+     * the field in the template class where the primary key from the template class matches.
+     *
+     * The template class need the Table annotation and fields need the Column annotation.
+     *
+     * If the table has the WRITE_BEHIND option, the update is only buffered and written later.
+     * Buffered updates of the same row without extra conditions are coalesced, only the last one is written.
+     *
+     * @param object the template class as an object.
+     * @param setColumns the columns that should be updated.
+     * @param conditions the extra conditions.
+     * @return true if ot was successful or buffered otherwise false.
+     */
+    public boolean update(Object object, String[] setColumns, Condition... conditions) {
+
+        Query query = updateQuery(object, setColumns, conditions);
+        if (query == null) {
+            return false;
+        }
+
+        if (isWriteBehind(object.getClass())) {
+            // an update without set columns skips the lazy columns that are null, so its key names the written columns
+            String key = conditions.length == 0 ? writeKey(object, setColumns != null ? setColumns : updatedColumns(object)) : null;
+
+            return writeBehind().add(object.getClass(), key, query);
+        }
+
+        boolean result = athena.execute(query);
+        invalidate(object.getClass());
+
+        return result;
+    }
+
+    /**
+     * Builds the update query for the given object.
+     *
+     * @param object the template class as an object.
+     * @param setColumns the columns that should be updated.
+     * @param conditions the extra conditions.
+     * @return the update query or null if a field could not be read.
+     */
+    private Query updateQuery(Object object, String[] setColumns, Condition... conditions) {
+
+        TableMapper<?> mapper = TableMapper.of(object.getClass());
+
+        UpdateQuery.Builder builder = new UpdateQuery.Builder();
+        builder.update(mapper.name());
+
+        Map<String, Object> primaryKeys = new LinkedHashMap<>();
+
+        try {
+            for (ColumnMapper column : mapper.columns()) {
+                if(column.isPrimaryKey()) {
+                    primaryKeys.put(column.name(), column.get(object));
+                    continue;
+                }
+
+                if(setColumns != null) {
+                    boolean contains = false;
+
+                    for (String setColumn : setColumns) {
+                        if (setColumn.equals(column.name())) {
+                            contains = true;
                         }
                     }
 
-                    field.setAccessible(true);
-                    builder.set(name, field.get(object).toString());
-                    field.setAccessible(false);
+                    if(!contains) {
+                        continue;
+                    }
+                } else if (column.isLazy() && column.get(object) == null) {
+                    // lazy columns that were not fetched are not overwritten
+                    continue;
                 }
+
+                builder.set(column.name(), column.get(object));
             }
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
+            return null;
         }
 
         if(conditions.length == 0) {
-            for (Map.Entry<String, String> entry : primaryKeys.entrySet()) {
+            for (Map.Entry<String, Object> entry : primaryKeys.entrySet()) {
                 builder.where(new Condition(entry.getKey(), Condition.Operator.EQUAL, entry.getValue()));
             }
         }else {
@@ -419,11 +1323,53 @@ public class SerializationManager {
             }
         }
 
-        return athena.execute(builder.build());
+        return builder.build();
+    }
+
+    /**
+     * Gets the columns an update without set columns writes, which are all columns besides the primary keys
+     * and the lazy columns that are null.
+     *
+     * @param object the template class as an object.
+     * @return the column names.
+     */
+    private static String[] updatedColumns(Object object) {
+
+        List<String> columns = new ArrayList<>();
+        for (ColumnMapper column : TableMapper.of(object.getClass()).columns()) {
+            if (!column.isPrimaryKey() && (!column.isLazy() || column.get(object) != null)) {
+                columns.add(column.name());
+            }
+        }
+
+        return columns.toArray(new String[0]);
+    }
+
+    /**
+     * Builds the key under which buffered updates of the same row and columns are coalesced.
+     *
+     * @param object the template class as an object.
+     * @param setColumns the columns that should be updated.
+     * @return the key or null if the table has no primary key.
+     */
+    private static String writeKey(Object object, String[] setColumns) {
+
+        TableMapper<?> mapper = TableMapper.of(object.getClass());
+        if (mapper.primaryKeys().isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(mapper.type().getName());
+        for (ColumnMapper column : mapper.primaryKeys()) {
+            sb.append('|').append(column.get(object));
+        }
+
+        return sb.append('|').append(Arrays.toString(setColumns)).toString();
     }
 
     /**
      * Updates all columns from an SQL table where the extra conditions matches.
+     * Lazy columns that are null because they were not fetched are left unchanged.
      * The template class need the Table annotation and fields need the Column annotation.
      *
      * @param object the template class as object.
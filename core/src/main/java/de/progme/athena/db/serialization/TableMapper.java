@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.ShardKey;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.serialization.exception.SQLSerializationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Represents the resolved metadata of a class with the Table annotation.
+ *
+ * A mapper is built once per class and cached, so the annotations and fields
+ * are not scanned again for every serialization operation.
+ */
+public class TableMapper<T> {
+
+    /**
+     * The cache of all mappers attached to their class.
+     * A ClassValue does not keep the classes reachable, so the classes and their class loader can be unloaded.
+     */
+    private static final ClassValue<TableMapper<?>> MAPPERS = new ClassValue<TableMapper<?>>() {
+
+        @Override
+        protected TableMapper<?> computeValue(Class<?> type) {
+
+            return new TableMapper<>(type);
+        }
+    };
+
+    /**
+     * The mapped class.
+     */
+    private final Class<T> clazz;
+
+    /**
+     * The table name.
+     */
+    private final String name;
+
+    /**
+     * The table options.
+     */
+    private final Table.Option[] options;
+
+    /**
+     * The table annotation.
+     */
+    private final Table table;
+
+    /**
+     * All columns in the order of the declared fields.
+     */
+    private final List<ColumnMapper> columns;
+
+    /**
+     * All primary key columns in the order of the declared fields.
+     */
+    private final List<ColumnMapper> primaryKeys;
+
+    /**
+     * The columns that identify an existing row on an upsert.
+     */
+    private final List<ColumnMapper> conflictKeys;
+
+    /**
+     * The first auto increment column or null if there is none.
+     */
+    private final ColumnMapper generatedKey;
+
+    /**
+     * The column with the ShardKey annotation or null if there is none.
+     */
+    private final ColumnMapper shardKey;
+
+    /**
+     * The columns keyed by their column name.
+     */
+    private final Map<String, ColumnMapper> columnsByName;
+
+    /**
+     * The column names in the order of the declared fields.
+     */
+    private final String[] columnNames;
+
+    /**
+     * The names of the columns that are not lazy in the order of the declared fields.
+     */
+    private final String[] eagerColumnNames;
+
+    /**
+     * All lazy columns in the order of the declared fields.
+     */
+    private final List<ColumnMapper> lazyColumns;
+
+    /**
+     * The handle of the default constructor with the type ()Object or null if there is none.
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * The reason why the default constructor cannot be used or null if there is one.
+     */
+    private final ReflectiveOperationException constructorError;
+
+    /**
+     * The handle of the constructor that takes all column values in the order of the declared fields
+     * with the type (Object[])Object or null if the class is not mapped by its constructor.
+     */
+    private final MethodHandle columnsConstructor;
+
+    /**
+     * The reason why the constructor with all columns cannot be used or null if there is one or it was not looked up.
+     */
+    private final ReflectiveOperationException columnsConstructorError;
+
+    /**
+     * Creates a new mapper for the given class.
+     *
+     * @param clazz the class with the Table annotation.
+     */
+    private TableMapper(Class<T> clazz) {
+
+        if (!clazz.isAnnotationPresent(Table.class)) {
+            throw new SQLSerializationException("Table annotation is not present!");
+        }
+
+        Table table = clazz.getAnnotation(Table.class);
+
+        this.clazz = clazz;
+        this.name = table.name();
+        this.options = table.options();
+        this.table = table;
+
+        List<ColumnMapper> columns = new ArrayList<>();
+        List<ColumnMapper> primaryKeys = new ArrayList<>();
+        Map<String, ColumnMapper> columnsByName = new HashMap<>();
+
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Column.class)) {
+                ColumnMapper column = new ColumnMapper(field);
+
+                columns.add(column);
+                columnsByName.put(column.name(), column);
+
+                if (column.isPrimaryKey()) {
+                    primaryKeys.add(column);
+                }
+            }
+        }
+
+        this.columns = Collections.unmodifiableList(columns);
+        this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+        this.conflictKeys = !primaryKeys.isEmpty() ? this.primaryKeys
+                : Collections.unmodifiableList(columns.stream().filter(ColumnMapper::isUnique).limit(1).collect(Collectors.toList()));
+        this.generatedKey = columns.stream().filter(ColumnMapper::isAutoIncrement).findFirst().orElse(null);
+        this.shardKey = columns.stream().filter(column -> column.field().isAnnotationPresent(ShardKey.class)).findFirst().orElse(null);
+        this.columnsByName = columnsByName;
+        this.columnNames = new String[columns.size()];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnNames[i] = columns.get(i).name();
+        }
+        this.eagerColumnNames = columns.stream().filter(column -> !column.isLazy()).map(ColumnMapper::name).toArray(String[]::new);
+        this.lazyColumns = Collections.unmodifiableList(columns.stream().filter(ColumnMapper::isLazy).collect(Collectors.toList()));
+
+        MethodHandle constructor;
+        ReflectiveOperationException constructorError = null;
+        try {
+            Constructor<T> declaredConstructor = clazz.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            constructor = null;
+            constructorError = e;
+        }
+        this.constructor = constructor;
+        this.constructorError = constructorError;
+
+        MethodHandle columnsConstructor = null;
+        ReflectiveOperationException columnsConstructorError = null;
+        if (constructor == null || columns.stream().anyMatch(column -> !column.isWritable())) {
+            Class<?>[] parameterTypes = columns.stream().map(column -> column.field().getType()).toArray(Class<?>[]::new);
+
+            try {
+                Constructor<T> declaredConstructor = clazz.getDeclaredConstructor(parameterTypes);
+                declaredConstructor.setAccessible(true);
+                columnsConstructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                        .asSpreader(Object[].class, parameterTypes.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                columnsConstructor = null;
+                columnsConstructorError = e;
+            }
+        }
+        this.columnsConstructor = columnsConstructor;
+        this.columnsConstructorError = columnsConstructorError;
+    }
+
+    /**
+     * Gets the cached mapper of the given class or creates it if it does not exist yet.
+     *
+     * @param clazz the class with the Table annotation.
+     * @return the mapper.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TableMapper<T> of(Class<T> clazz) {
+
+        return (TableMapper<T>) MAPPERS.get(clazz);
+    }
+
+    /**
+     * Creates a new instance of the mapped class with the default constructor.
+     *
+     * @return the new instance.
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+
+        if (constructor == null) {
+            throw new SQLSerializationException("Default constructor is not present in " + clazz.getName() + "!", constructorError);
+        }
+
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new SQLSerializationException("Cannot create instance of " + clazz.getName() + ": " + t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Creates a new instance of the mapped class with the constructor that takes all column values.
+     *
+     * @param values the values of all columns in the order of the declared fields.
+     * @return the new instance.
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object[] values) {
+
+        if (columnsConstructor == null) {
+            throw new SQLSerializationException("Constructor with all columns is not present in " + clazz.getName() + "!", columnsConstructorError);
+        }
+
+        try {
+            return (T) (Object) columnsConstructor.invokeExact(values);
+        } catch (Throwable t) {
+            throw new SQLSerializationException("Cannot create instance of " + clazz.getName() + ": " + t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Creates a copy of the object with the values of all columns.
+     * Arrays and timestamps are copied as well, streams and other values are shared with the original.
+     * Fields without the Column annotation keep the values of the constructor.
+     *
+     * @param object the object.
+     * @return the copy.
+     */
+    public T copy(T object) {
+
+        if (isImmutable()) {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = copyValue(columns.get(i).get(object));
+            }
+
+            return newInstance(values);
+        }
+
+        T copy = newInstance();
+        for (ColumnMapper column : columns) {
+            if (column.isWritable()) {
+                column.set(copy, copyValue(column.get(object)));
+            }
+        }
+
+        return copy;
+    }
+
+    /**
+     * Copies a mutable column value.
+     *
+     * @param value the value.
+     * @return the copy or the value itself if it is immutable or cannot be copied.
+     */
+    private static Object copyValue(Object value) {
+
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = new Timestamp(((Timestamp) value).getTime());
+            timestamp.setNanos(((Timestamp) value).getNanos());
+            return timestamp;
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns whether the class is created with the constructor that takes all column values.
+     * This is the case for immutable classes and records whose constructor parameters match the column fields
+     * in the order of the declaration, if they have no default constructor or final column fields.
+     *
+     * @return true if the class is mapped by its constructor, otherwise false.
+     */
+    public boolean isImmutable() {
+
+        return columnsConstructor != null;
+    }
+
+    /**
+     * Gets the mapped class.
+     *
+     * @return the class.
+     */
+    public Class<T> type() {
+
+        return clazz;
+    }
+
+    /**
+     * Gets the table name.
+     *
+     * @return the table name.
+     */
+    public String name() {
+
+        return name;
+    }
+
+    /**
+     * Gets the table options.
+     *
+     * @return the options.
+     */
+    public Table.Option[] options() {
+
+        return options;
+    }
+
+    /**
+     * Gets the table annotation.
+     *
+     * @return the annotation.
+     */
+    public Table table() {
+
+        return table;
+    }
+
+    /**
+     * Gets all columns in the order of the declared fields.
+     *
+     * @return the columns.
+     */
+    public List<ColumnMapper> columns() {
+
+        return columns;
+    }
+
+    /**
+     * Gets all primary key columns in the order of the declared fields.
+     *
+     * @return the primary key columns.
+     */
+    public List<ColumnMapper> primaryKeys() {
+
+        return primaryKeys;
+    }
+
+    /**
+     * Gets the columns that identify an existing row on an upsert.
+     * These are the primary key columns or the first unique column if there is no primary key.
+     *
+     * @return the conflict columns, empty if there are none.
+     */
+    public List<ColumnMapper> conflictKeys() {
+
+        return conflictKeys;
+    }
+
+    /**
+     * Gets the column the database generates the value for.
+     *
+     * @return the first auto increment column or null if there is none.
+     */
+    public ColumnMapper generatedKey() {
+
+        return generatedKey;
+    }
+
+    /**
+     * Gets the column the table is sharded by.
+     *
+     * @return the column with the ShardKey annotation or null if there is none.
+     */
+    public ColumnMapper shardKey() {
+
+        return shardKey;
+    }
+
+    /**
+     * Gets a column by the column name.
+     *
+     * @param name the column name.
+     * @return the column or null if there is no column with this name.
+     */
+    public ColumnMapper column(String name) {
+
+        return columnsByName.get(name);
+    }
+
+    /**
+     * Gets all column names in the order of the declared fields.
+     *
+     * @return the column names.
+     */
+    public String[] columnNames() {
+
+        return columnNames.clone();
+    }
+
+    /**
+     * Gets the names of the columns that are selected by default in the order of the declared fields.
+     *
+     * @return the column names without the lazy columns.
+     */
+    public String[] eagerColumnNames() {
+
+        return eagerColumnNames.clone();
+    }
+
+    /**
+     * Gets all lazy columns in the order of the declared fields.
+     *
+     * @return the lazy columns.
+     */
+    public List<ColumnMapper> lazyColumns() {
+
+        return lazyColumns;
+    }
+}
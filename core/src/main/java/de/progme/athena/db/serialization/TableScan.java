@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.DBCursor;
+import de.progme.athena.db.DBResult;
+import de.progme.athena.db.DBRow;
+import de.progme.athena.db.Function;
+import de.progme.athena.query.core.SelectQuery;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Represents a parallel scan of a table over ranges of its numeric primary key.
+ *
+ * The range between the MIN and MAX of the key is split into partitions that are read concurrently
+ * on the dispatcher, every partition with its own cursor and pooled connection.
+ * The rows are not returned in key order and partitions do not take part in a running transaction.
+ */
+public class TableScan<T> {
+
+    /**
+     * The marker that is queued after the last row of the stream.
+     */
+    private static final Object END = new Object();
+
+    /**
+     * The Athena instance.
+     */
+    private final Athena athena;
+
+    /**
+     * The mapper of the template class.
+     */
+    private final TableMapper<T> mapper;
+
+    /**
+     * The primary key column.
+     */
+    private final ColumnMapper key;
+
+    /**
+     * The number of partitions.
+     */
+    private final int partitions;
+
+    /**
+     * The conditions for the SQL SELECT.
+     */
+    private final Condition[] conditions;
+
+    /**
+     * Creates a new scan.
+     *
+     * @param athena the Athena instance.
+     * @param mapper the mapper of the template class.
+     * @param key the numeric primary key column.
+     * @param partitions the number of partitions.
+     * @param conditions the conditions for the SQL SELECT.
+     */
+    TableScan(Athena athena, TableMapper<T> mapper, ColumnMapper key, int partitions, Condition... conditions) {
+
+        this.athena = athena;
+        this.mapper = mapper;
+        this.key = key;
+        this.partitions = partitions;
+        this.conditions = conditions;
+    }
+
+    /**
+     * Reads all partitions concurrently and passes every row to the consumer.
+     * The consumer is called from the dispatcher threads and has to be thread safe.
+     *
+     * @param consumer the consumer of the rows.
+     * @return the future that is completed with the number of rows, with 0 if no row matches the conditions,
+     * or exceptionally if the key range could not be selected or a partition failed.
+     */
+    public CompletableFuture<Long> forEach(Consumer<? super T> consumer) {
+
+        long[] range;
+        try {
+            range = range();
+        } catch (RuntimeException e) {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+
+            return future;
+        }
+
+        if (range == null) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        long min = range[0];
+        long max = range[1];
+
+        // the span and the step are unsigned, the span of a signed key range can exceed Long.MAX_VALUE
+        long step = Long.divideUnsigned(max - min, partitions) + 1;
+
+        AtomicLong rows = new AtomicLong();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(partitions);
+
+        long from = min;
+        while (true) {
+            long partitionFrom = from;
+            long partitionTo = step == 0 || Long.compareUnsigned(step - 1, max - from) >= 0 ? max : from + step - 1;
+
+            futures.add(athena.dispatcher().supply(() -> {
+                rows.addAndGet(scan(partitionFrom, partitionTo, consumer));
+                return null;
+            }));
+
+            if (partitionTo == max) {
+                break;
+            }
+
+            from = partitionTo + 1;
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> rows.get());
+    }
+
+    /**
+     * Reads all partitions concurrently into a merged stream.
+     * The rows are handed over with a bounded queue, so only a limited number of rows is held in memory.
+     * The partitions are started with the first row that is requested, from their own thread, so a dispatcher
+     * that runs partitions on the submitting thread never blocks the consumer of the stream.
+     * Closing the stream stops the partitions that are still running.
+     *
+     * @return the stream of all rows.
+     */
+    public Stream<T> stream() {
+
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(Math.max(1024, athena.settings().fetchSize()));
+        Cancellation cancellation = new Cancellation();
+
+        Iterator<T> iterator = new Iterator<T>() {
+
+            private boolean started = false;
+
+            private Object next;
+
+            @Override
+            public boolean hasNext() {
+
+                if (!started) {
+                    started = true;
+                    produce(queue, cancellation);
+                }
+
+                if (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Interrupted while waiting for the next row");
+                    }
+                }
+
+                if (next == END) {
+                    if (cancellation.failure != null && !cancellation.cancelled) {
+                        throw new CompletionException(cancellation.failure);
+                    }
+
+                    return false;
+                }
+
+                return true;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                T row = (T) next;
+                next = null;
+
+                return row;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    cancellation.cancelled = true;
+                    queue.clear();
+                });
+    }
+
+    /**
+     * Starts a thread that reads all partitions into the queue of a stream and queues the end marker afterwards.
+     *
+     * @param queue the queue of the stream.
+     * @param cancellation the state of the stream.
+     */
+    private void produce(BlockingQueue<Object> queue, Cancellation cancellation) {
+
+        Thread producer = new Thread(() -> forEach(row -> cancellation.put(queue, row)).whenComplete((rows, throwable) -> {
+            if (throwable != null) {
+                cancellation.failure = throwable;
+            }
+            cancellation.put(queue, END);
+        }), "Athena-TableScan");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Selects the MIN and MAX of the key with the conditions.
+     *
+     * @return the range or null if no row matches the conditions.
+     * @throws IllegalStateException if the query failed.
+     */
+    private long[] range() {
+
+        SelectQuery.Builder builder = new SelectQuery.Builder();
+        builder.function(new Function(Function.Type.MIN, key.name(), "min"), new Function(Function.Type.MAX, key.name(), "max"));
+        builder.from(mapper.name());
+
+        for (Condition condition : conditions) {
+            builder.where(condition);
+        }
+
+        DBResult result = athena.query(builder.build());
+        if (result == null) {
+            throw new IllegalStateException("Could not select the key range of " + mapper.name());
+        }
+
+        if (result.size() == 0 || result.row(0).isNull("min")) {
+            return null;
+        }
+
+        return new long[] { result.row(0).getLong("min"), result.row(0).getLong("max") };
+    }
+
+    /**
+     * Reads the rows of one partition with a cursor.
+     *
+     * @param from the lowest key of the partition.
+     * @param to the highest key of the partition.
+     * @param consumer the consumer of the rows.
+     * @return the number of rows.
+     */
+    private long scan(long from, long to, Consumer<? super T> consumer) {
+
+        SelectQuery.Builder builder = new SelectQuery.Builder();
+        builder.select(mapper.eagerColumnNames());
+        builder.from(mapper.name());
+
+        for (Condition condition : conditions) {
+            builder.where(condition);
+        }
+
+        builder.where(new Condition(key.name(), Condition.Operator.GREATER_EQUAL, from));
+        builder.where(new Condition(key.name(), Condition.Operator.LESS_EQUAL, to));
+
+        long rows = 0;
+        long start = System.nanoTime();
+
+        try (DBCursor cursor = athena.cursor(builder.build())) {
+            if (cursor == null) {
+                throw new IllegalStateException("Could not scan " + mapper.name() + " from " + from + " to " + to);
+            }
+
+            while (cursor.hasNext()) {
+                DBRow row = cursor.next();
+
+                consumer.accept(SerializationManager.map(mapper, row));
+                rows++;
+            }
+        }
+
+        athena.metrics().rowsMapped(mapper.type(), (int) rows, System.nanoTime() - start);
+
+        return rows;
+    }
+
+    /**
+     * Represents the state shared between the partitions and the consumer of a stream.
+     */
+    private static class Cancellation {
+
+        private volatile boolean cancelled = false;
+
+        private volatile Throwable failure;
+
+        /**
+         * Queues the element and waits for space as long as the stream is not closed.
+         *
+         * @param queue the queue.
+         * @param element the element.
+         */
+        private void put(BlockingQueue<Object> queue, Object element) {
+
+            if (cancelled) {
+                throw new CancellationException("Stream is closed");
+            }
+
+            try {
+                while (!queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        throw new CancellationException("Stream is closed");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while queueing a row");
+            }
+        }
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.async.Backpressure;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.Query;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Represents the buffer of inserts and updates for tables with the WRITE_BEHIND option.
+ *
+ * The writes are queued in a bounded queue and a background flusher writes them every interval or as soon as
+ * the batch size is reached. A flush sends all queued writes with JDBC batches in one transaction.
+ * Updates of the same row are coalesced, so only the last one is written.
+ * If the transaction fails, the writes are written one by one and only the writes that fail are kept and
+ * written again with the next flush, until they failed {@link #MAX_ATTEMPTS} times.
+ * Flushes never take part in a transaction of the thread that started them.
+ *
+ * Buffered writes are not visible to selects until they are flushed.
+ */
+public class WriteBehindBuffer {
+
+    /**
+     * How often a write is tried before it is dropped.
+     */
+    public static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * The Athena instance.
+     */
+    private final Athena athena;
+
+    /**
+     * Whether exceptions are printed.
+     */
+    private final boolean printExceptions;
+
+    /**
+     * The number of queued writes after which a flush is started.
+     */
+    private final int batchSize;
+
+    /**
+     * What happens with a write when the queue is full.
+     */
+    private final Backpressure backpressure;
+
+    /**
+     * The queued writes.
+     */
+    private final BlockingQueue<Write> queue;
+
+    /**
+     * The thread that flushes the queue.
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * The writes of failed flushes that are written again before the queued writes.
+     * Guarded by the flush lock.
+     */
+    private final List<Write> retries = new ArrayList<>();
+
+    /**
+     * The lock that is held while a write is queued and exclusively when the buffer is closed,
+     * so no write can be queued after the final flush.
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    /**
+     * The lock that allows only one flush at a time.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Whether a flush because of the batch size is already started.
+     */
+    private final AtomicBoolean flushStarted = new AtomicBoolean();
+
+    /**
+     * The number of writes that were written.
+     */
+    private final AtomicLong flushed = new AtomicLong();
+
+    /**
+     * The number of writes that were lost because their flush failed {@link #MAX_ATTEMPTS} times.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Whether the buffer is closed.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new buffer and starts the flusher.
+     *
+     * @param athena the Athena instance.
+     * @param settings the settings with the write-behind options.
+     */
+    public WriteBehindBuffer(Athena athena, AthenaSettings settings) {
+
+        this.athena = athena;
+        this.printExceptions = settings.printExceptions();
+        this.batchSize = Math.max(1, settings.writeBehindBatchSize());
+        this.backpressure = settings.writeBehindBackpressure();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.writeBehindQueueSize()));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Athena-WriteBehind");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        long interval = Math.max(1, settings.writeBehindInterval());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a write.
+     *
+     * @param type the template class.
+     * @param key the key under which writes of the same row are coalesced or null if they are not coalesced.
+     * @param query the query.
+     * @return true if the write was queued, false if the buffer is closed or the thread was interrupted.
+     * @throws RejectedExecutionException if the queue is full and the backpressure is ABORT.
+     */
+    boolean add(Class<?> type, String key, Query query) {
+
+        Write write = new Write(type, key, query);
+
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+
+            if (!queue.offer(write)) {
+                switch (backpressure) {
+                    case CALLER_RUNS:
+                        do {
+                            flush();
+                        } while (!queue.offer(write));
+                        break;
+                    case BLOCK:
+                        try {
+                            queue.put(write);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                        break;
+                    default:
+                        throw new RejectedExecutionException("Write-behind queue is full");
+                }
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+
+        if (queue.size() >= batchSize && flushStarted.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushStarted.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushStarted.set(false);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes all queued writes in one transaction.
+     * The select caches of the written tables are invalidated afterwards.
+     * If the transaction fails, the writes are written one by one, so only the writes that fail again are kept
+     * for the next flush until they failed {@link #MAX_ATTEMPTS} times.
+     *
+     * The flush never joins a transaction of the calling thread. If one is running, the writes are flushed
+     * by the flusher thread on another connection while the calling thread waits.
+     *
+     * @return true if all writes were written, otherwise false.
+     */
+    public boolean flush() {
+
+        return outsideTransaction(this::flushNow);
+    }
+
+    /**
+     * Writes all queued writes on the current thread.
+     *
+     * @return true if all writes were written, otherwise false.
+     */
+    private boolean flushNow() {
+
+        synchronized (flushLock) {
+            List<Write> writes = new ArrayList<>(retries.size() + queue.size());
+            writes.addAll(retries);
+            retries.clear();
+            queue.drainTo(writes);
+
+            if (writes.isEmpty()) {
+                return true;
+            }
+
+            Map<String, Write> lastWrites = new HashMap<>();
+            for (Write write : writes) {
+                if (write.key != null) {
+                    lastWrites.put(write.key, write);
+                }
+            }
+
+            List<Write> coalesced = new ArrayList<>(writes.size());
+            for (Write write : writes) {
+                Write last = write.key != null ? lastWrites.get(write.key) : write;
+                if (last == write) {
+                    coalesced.add(write);
+                } else {
+                    // the last write of the row replaces this one and is counted for both
+                    last.superseded += write.superseded + 1;
+                }
+            }
+
+            List<Query> queries = new ArrayList<>(coalesced.size());
+            Set<Class<?>> types = new HashSet<>();
+            for (Write write : coalesced) {
+                queries.add(write.query);
+                types.add(write.type);
+            }
+
+            boolean written = athena.transaction(transaction -> {
+                BatchResult result = transaction.executeBatch(queries);
+                if (!result.successful()) {
+                    transaction.setRollbackOnly();
+                }
+            });
+
+            if (written) {
+                for (Write write : coalesced) {
+                    flushed.addAndGet(write.superseded + 1);
+                }
+            } else {
+                // one bad write must not fail the writes it was batched with
+                written = true;
+                for (Write write : coalesced) {
+                    if (athena.execute(write.query)) {
+                        flushed.addAndGet(write.superseded + 1);
+                        continue;
+                    }
+
+                    written = false;
+                    if (++write.attempts < MAX_ATTEMPTS) {
+                        retries.add(write);
+                    } else {
+                        failed.addAndGet(write.superseded + 1);
+                    }
+                }
+            }
+
+            for (Class<?> type : types) {
+                athena.serializationManager().invalidate(type);
+            }
+
+            return written;
+        }
+    }
+
+    /**
+     * Runs the flush on the current thread or, if a transaction is running on it, on the flusher thread,
+     * so buffered writes are never committed or rolled back with the transaction of a caller.
+     *
+     * @param flush the flush.
+     * @return the result of the flush or false if the waiting thread was interrupted.
+     */
+    private boolean outsideTransaction(BooleanSupplier flush) {
+
+        if (athena.currentTransaction() == null) {
+            return flush.getAsBoolean();
+        }
+
+        Future<Boolean> future;
+        try {
+            future = flusher.submit(flush::getAsBoolean);
+        } catch (RejectedExecutionException e) {
+            // the flusher is stopped because the buffer is closed
+            future = ForkJoinPool.commonPool().submit(flush::getAsBoolean);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Flushes the queue and prints exceptions instead of throwing them, so the flusher keeps running.
+     */
+    private void flushQuietly() {
+
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            if (printExceptions) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of queued writes, including the writes of failed flushes that are written again.
+     *
+     * @return the number of writes.
+     */
+    public int pending() {
+
+        synchronized (flushLock) {
+            return queue.size() + retries.size();
+        }
+    }
+
+    /**
+     * Gets the number of writes that were written, including coalesced ones.
+     *
+     * @return the number of writes.
+     */
+    public long flushed() {
+
+        return flushed.get();
+    }
+
+    /**
+     * Gets the number of writes that were dropped because their flush failed {@link #MAX_ATTEMPTS} times.
+     *
+     * @return the number of writes.
+     */
+    public long failed() {
+
+        return failed.get();
+    }
+
+    /**
+     * Stops the flusher and writes all queued writes.
+     * Writes after the buffer is closed are rejected.
+     * Failed writes are tried again until they are written or failed {@link #MAX_ATTEMPTS} times.
+     */
+    void close() {
+
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        drain();
+    }
+
+    /**
+     * Flushes until all queued writes are written or dropped after {@link #MAX_ATTEMPTS} failed attempts,
+     * so no buffered write can reach the database after a write that is made afterwards.
+     * Like {@link #flush()} it never joins a transaction of the calling thread.
+     */
+    void drain() {
+
+        outsideTransaction(() -> {
+            synchronized (flushLock) {
+                boolean written;
+                do {
+                    written = flushNow();
+                } while (!written);
+
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Represents a queued write.
+     */
+    private static class Write {
+
+        private final Class<?> type;
+
+        private final String key;
+
+        private final Query query;
+
+        private int attempts;
+
+        private int superseded;
+
+        private Write(Class<?> type, String key, Query query) {
+
+            this.type = type;
+            this.key = key;
+            this.query = query;
+        }
+    }
+}
@@ -23,6 +23,9 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
 
 /**
@@ -48,6 +51,22 @@ public @interface Column {
      */
     Option[] options() default Option.EMPTY;
 
+    /**
+     * Gets whether the column is left out of selects and only loaded with SerializationManager.fetch.
+     * Primary key columns are never lazy.
+     *
+     * @return true if the column is lazy, otherwise false.
+     */
+    boolean lazy() default false;
+
+    /**
+     * Gets whether a String column is stored as large text instead of VARCHAR(255).
+     * InputStream, Reader, ByteBuffer and byte[] columns are always large objects.
+     *
+     * @return true if the column is a large text column, otherwise false.
+     */
+    boolean text() default false;
+
     /**
      * Represents an option for a column.
      */
@@ -102,6 +121,8 @@ public @interface Column {
         SHORT("SMALLINT", Short.class, short.class),
         CHAR("CHAR", char.class),
         DATETIME("DATETIME", Timestamp.class),
+        BLOB("LONGBLOB", byte[].class, ByteBuffer.class, InputStream.class),
+        TEXT("LONGTEXT", Reader.class),
         UNKNOWN("UNKNOWN");
 
         private String sqlName;
@@ -130,6 +151,14 @@ public @interface Column {
                 }
             }
 
+            for(Type type : Type.values()) {
+                for(Class<?> javaClass : type.javaClasses) {
+                    if(javaClass.isAssignableFrom(clazz)) {
+                        return type;
+                    }
+                }
+            }
+
             return Type.UNKNOWN;
         }
 
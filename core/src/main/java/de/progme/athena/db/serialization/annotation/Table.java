@@ -47,12 +47,34 @@ public @interface Table {
      */
     Option[] options() default Option.EMPTY;
 
+    /**
+     * Gets the maximum number of select results that are cached for the table.
+     * The cache is disabled if it is 0.
+     * Selects that miss the cache are read from the primary, never from a read replica.
+     *
+     * @return the cache size.
+     */
+    int cacheSize() default 0;
+
+    /**
+     * Gets the time in milliseconds after which a cached select result expires.
+     * Cached results do not expire if it is 0.
+     *
+     * @return the expiry time in milliseconds.
+     */
+    long cacheExpiry() default 60000;
+
     /**
      * Represents options that SQL table can have.
      */
     enum Option {
         EMPTY,
-        CREATE_IF_NOT_EXISTS;
+        CREATE_IF_NOT_EXISTS,
+
+        /**
+         * Inserts and updates are buffered and written in batches by a background flusher.
+         */
+        WRITE_BEHIND;
 
         /**
          * Checks if the current option is in the given option array.
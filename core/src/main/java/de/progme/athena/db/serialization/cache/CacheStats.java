@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization.cache;
+
+/**
+ * Represents a snapshot of the statistics of an EntityCache.
+ */
+public class CacheStats {
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final int size;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param hits the number of hits.
+     * @param misses the number of misses.
+     * @param evictions the number of evicted or expired results.
+     * @param size the number of cached results.
+     */
+    public CacheStats(long hits, long misses, long evictions, int size) {
+
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public long hits() {
+
+        return hits;
+    }
+
+    public long misses() {
+
+        return misses;
+    }
+
+    public long evictions() {
+
+        return evictions;
+    }
+
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Gets the ratio of hits to all lookups.
+     *
+     * @return the hit rate between 0 and 1.
+     */
+    public double hitRate() {
+
+        long requests = hits + misses;
+
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+
+        return "CacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a size and time bounded cache of select results for one table.
+ *
+ * The least recently used result is evicted when the cache is full.
+ * Every write to the table invalidates the whole cache.
+ * Keys are compared with equals, so they have to be built from the typed parameters of the select.
+ */
+public class EntityCache {
+
+    /**
+     * The maximum number of cached results.
+     */
+    private final int maximumSize;
+
+    /**
+     * The time in nanoseconds after which a result expires.
+     */
+    private final long expireNanos;
+
+    /**
+     * The cached results in access order.
+     */
+    private final LinkedHashMap<Object, Entry> entries;
+
+    /**
+     * The generation that is increased on every invalidation.
+     */
+    private long generation = 0;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long evictions = 0;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize the maximum number of cached results.
+     * @param expireMs the time in milliseconds after which a result expires. 0 if results should not expire.
+     */
+    public EntityCache(int maximumSize, long expireMs) {
+
+        this.maximumSize = maximumSize;
+        this.expireNanos = expireMs > 0 ? expireMs * 1000000L : Long.MAX_VALUE;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+
+                if (size() > EntityCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached result for the key.
+     *
+     * @param key the key.
+     * @return the result or null if it is not cached or expired.
+     */
+    public synchronized List<?> get(Object key) {
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (System.nanoTime() - entry.created > expireNanos) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+
+        return entry.value;
+    }
+
+    /**
+     * Gets the current generation.
+     * It has to be read before the database is queried and passed to {@link #put(Object, List, long)}.
+     *
+     * @return the generation.
+     */
+    public synchronized long generation() {
+
+        return generation;
+    }
+
+    /**
+     * Caches the result for the key if the cache was not invalidated since the generation was read.
+     *
+     * @param key the key.
+     * @param value the result.
+     * @param generation the generation that was read before the database was queried.
+     */
+    public synchronized void put(Object key, List<?> value, long generation) {
+
+        if (generation != this.generation) {
+            return;
+        }
+
+        entries.put(key, new Entry(value, System.nanoTime()));
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void invalidate() {
+
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Gets a snapshot of the statistics.
+     *
+     * @return the statistics.
+     */
+    public synchronized CacheStats stats() {
+
+        return new CacheStats(hits, misses, evictions, entries.size());
+    }
+
+    /**
+     * Represents a cached result with its creation time.
+     */
+    private static class Entry {
+
+        private final List<?> value;
+
+        private final long created;
+
+        private Entry(List<?> value, long created) {
+
+            this.value = value;
+            this.created = created;
+        }
+    }
+}
@@ -37,4 +37,15 @@ public class SQLSerializationException extends RuntimeException {
 
         super(message);
     }
+
+    /**
+     * Creates an SQLSerializationException instance with the given message and cause.
+     *
+     * @param message the message.
+     * @param cause the cause.
+     */
+    public SQLSerializationException(String message, Throwable cause) {
+
+        super(message, cause);
+    }
 }
@@ -19,7 +19,15 @@
 
 package de.progme.athena.db.settings;
 
+import de.progme.athena.async.Backpressure;
+import de.progme.athena.async.DispatcherStrategy;
 import de.progme.athena.db.Type;
+import de.progme.athena.metrics.MetricsRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Created by Marvin Erkes on 11.08.2015.
@@ -48,6 +56,40 @@ public class AthenaSettings {
 
     private long queryTimeout = 2000;
 
+    private int batchSize = 1000;
+
+    private int fetchSize = 1000;
+
+    private DispatcherStrategy dispatcherStrategy = DispatcherStrategy.BOUNDED;
+
+    private int dispatcherThreads = 0;
+
+    private int dispatcherQueueSize = 1024;
+
+    private Backpressure backpressure = Backpressure.CALLER_RUNS;
+
+    private Executor executor;
+
+    private MetricsRecorder metrics = MetricsRecorder.NOOP;
+
+    private long slowQueryThreshold = 0;
+
+    private double slowQuerySampleRate = 1;
+
+    private long writeBehindInterval = 1000;
+
+    private int writeBehindBatchSize = 500;
+
+    private int writeBehindQueueSize = 10000;
+
+    private Backpressure writeBehindBackpressure = Backpressure.BLOCK;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private ReplicaStrategy replicaStrategy = ReplicaStrategy.ROUND_ROBIN;
+
+    private long readYourWritesWindow = 1000;
+
     public AthenaSettings() {
 
     }
@@ -116,6 +158,91 @@ public class AthenaSettings {
         return queryTimeout;
     }
 
+    public int batchSize() {
+
+        return batchSize;
+    }
+
+    public int fetchSize() {
+
+        return fetchSize;
+    }
+
+    public DispatcherStrategy dispatcherStrategy() {
+
+        return dispatcherStrategy;
+    }
+
+    public int dispatcherThreads() {
+
+        return dispatcherThreads;
+    }
+
+    public int dispatcherQueueSize() {
+
+        return dispatcherQueueSize;
+    }
+
+    public Backpressure backpressure() {
+
+        return backpressure;
+    }
+
+    public Executor executor() {
+
+        return executor;
+    }
+
+    public MetricsRecorder metrics() {
+
+        return metrics;
+    }
+
+    public long slowQueryThreshold() {
+
+        return slowQueryThreshold;
+    }
+
+    public double slowQuerySampleRate() {
+
+        return slowQuerySampleRate;
+    }
+
+    public long writeBehindInterval() {
+
+        return writeBehindInterval;
+    }
+
+    public int writeBehindBatchSize() {
+
+        return writeBehindBatchSize;
+    }
+
+    public int writeBehindQueueSize() {
+
+        return writeBehindQueueSize;
+    }
+
+    public Backpressure writeBehindBackpressure() {
+
+        return writeBehindBackpressure;
+    }
+
+    public List<Replica> replicas() {
+
+        return Collections.unmodifiableList(replicas);
+    }
+
+    public ReplicaStrategy replicaStrategy() {
+
+        return replicaStrategy;
+    }
+
+    public long readYourWritesWindow() {
+
+        return readYourWritesWindow;
+    }
+
     /**
      * The builder for AthenaSettings.
      */
@@ -253,6 +380,240 @@ public class AthenaSettings {
             return this;
         }
 
+        /**
+         * Sets the maximum number of statements that are executed and committed as one batch.
+         *
+         * @param batchSize the batch size.
+         * @return the builder.
+         */
+        public Builder batchSize(int batchSize) {
+
+            settings.batchSize = batchSize;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of rows the driver fetches at once for streamed queries.
+         * MySQL always streams streamed queries row by row.
+         *
+         * @param fetchSize the fetch size.
+         * @return the builder.
+         */
+        public Builder fetchSize(int fetchSize) {
+
+            settings.fetchSize = fetchSize;
+
+            return this;
+        }
+
+        /**
+         * Sets the strategy the dispatcher uses to execute async operations.
+         *
+         * @param strategy the strategy.
+         * @return the builder.
+         */
+        public Builder dispatcherStrategy(DispatcherStrategy strategy) {
+
+            settings.dispatcherStrategy = strategy;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of threads of the bounded dispatcher.
+         * If it is 0, the pool size of the connection pool is used.
+         *
+         * @param threads the number of threads.
+         * @return the builder.
+         */
+        public Builder dispatcherThreads(int threads) {
+
+            settings.dispatcherThreads = threads;
+
+            return this;
+        }
+
+        /**
+         * Sets the capacity of the queue of the bounded dispatcher.
+         *
+         * @param queueSize the capacity.
+         * @return the builder.
+         */
+        public Builder dispatcherQueueSize(int queueSize) {
+
+            settings.dispatcherQueueSize = queueSize;
+
+            return this;
+        }
+
+        /**
+         * Sets what happens when the queue of the bounded dispatcher is full.
+         *
+         * @param backpressure the backpressure policy.
+         * @return the builder.
+         */
+        public Builder backpressure(Backpressure backpressure) {
+
+            settings.backpressure = backpressure;
+
+            return this;
+        }
+
+        /**
+         * Sets an own executor for async operations, the dispatcher strategy is ignored then.
+         * The executor is not shut down when Athena is closed.
+         *
+         * @param executor the executor.
+         * @return the builder.
+         */
+        public Builder executor(Executor executor) {
+
+            settings.executor = executor;
+
+            return this;
+        }
+
+        /**
+         * Sets the recorder for query and serialization metrics.
+         *
+         * @param metrics the recorder, for example an InMemoryMetrics.
+         * @return the builder.
+         */
+        public Builder metrics(MetricsRecorder metrics) {
+
+            settings.metrics = metrics != null ? metrics : MetricsRecorder.NOOP;
+
+            return this;
+        }
+
+        /**
+         * Sets the time after which statements are logged as slow query.
+         * The time includes the time waited for a connection. A value of 0 disables the log.
+         *
+         * @param slowQueryThresholdMs the threshold in milliseconds.
+         * @return the builder.
+         */
+        public Builder slowQueryThreshold(long slowQueryThresholdMs) {
+
+            settings.slowQueryThreshold = slowQueryThresholdMs;
+
+            return this;
+        }
+
+        /**
+         * Sets the fraction of slow queries that are logged.
+         *
+         * @param sampleRate the fraction between 0 and 1.
+         * @return the builder.
+         */
+        public Builder slowQuerySampleRate(double sampleRate) {
+
+            settings.slowQuerySampleRate = sampleRate;
+
+            return this;
+        }
+
+        /**
+         * Sets the time between two flushes of the write-behind buffer.
+         *
+         * @param intervalMs the interval in milliseconds.
+         * @return the builder.
+         */
+        public Builder writeBehindInterval(long intervalMs) {
+
+            settings.writeBehindInterval = intervalMs;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of buffered writes after which the write-behind buffer is flushed before the interval ends.
+         *
+         * @param batchSize the number of writes.
+         * @return the builder.
+         */
+        public Builder writeBehindBatchSize(int batchSize) {
+
+            settings.writeBehindBatchSize = batchSize;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of buffered writes.
+         *
+         * @param queueSize the maximum number of writes.
+         * @return the builder.
+         */
+        public Builder writeBehindQueueSize(int queueSize) {
+
+            settings.writeBehindQueueSize = queueSize;
+
+            return this;
+        }
+
+        /**
+         * Sets what happens with a write when the write-behind buffer is full.
+         * CALLER_RUNS flushes the buffer on the writing thread.
+         *
+         * @param backpressure the backpressure policy.
+         * @return the builder.
+         */
+        public Builder writeBehindBackpressure(Backpressure backpressure) {
+
+            settings.writeBehindBackpressure = backpressure;
+
+            return this;
+        }
+
+        /**
+         * Adds a read replica of the primary server. Every replica gets its own pool with the pool size.
+         * Reads are routed to the replicas, writes and transactions stay on the primary.
+         * Replicas are only used with MySQL.
+         *
+         * @param host the host of the replica.
+         * @param port the port of the replica.
+         * @return the builder.
+         */
+        public Builder replica(String host, int port) {
+
+            settings.replicas.add(new Replica(host, port));
+
+            return this;
+        }
+
+        /**
+         * Sets how the read replica is chosen for a read.
+         *
+         * @param strategy the strategy.
+         * @return the builder.
+         */
+        public Builder replicaStrategy(ReplicaStrategy strategy) {
+
+            settings.replicaStrategy = strategy;
+
+            return this;
+        }
+
+        /**
+         * Sets how long the reads of a thread stay on the primary after it has written, so it reads its own writes
+         * even if the replicas lag behind. 0 disables the pinning.
+         *
+         * The pinning is per thread. Writes of the async methods and of the write-behind buffer run on other threads
+         * and do not pin the caller, so a read after them has to wait for the returned future or
+         * SerializationManager.flush and use a transaction if it must see the write.
+         *
+         * @param windowMs the window in milliseconds.
+         * @return the builder.
+         */
+        public Builder readYourWritesWindow(long windowMs) {
+
+            settings.readYourWritesWindow = windowMs;
+
+            return this;
+        }
+
         /**
          * Gets the finished AthenaSettings instance.
          *
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.settings;
+
+/**
+ * Represents a read replica of the primary MySQL server.
+ */
+public class Replica {
+
+    /**
+     * The host of the replica.
+     */
+    private final String host;
+
+    /**
+     * The port of the replica.
+     */
+    private final int port;
+
+    /**
+     * Creates a new replica with the host and port.
+     *
+     * @param host the host.
+     * @param port the port.
+     */
+    public Replica(String host, int port) {
+
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Gets the host.
+     *
+     * @return the host.
+     */
+    public String host() {
+
+        return host;
+    }
+
+    /**
+     * Gets the port.
+     *
+     * @return the port.
+     */
+    public int port() {
+
+        return port;
+    }
+
+    @Override
+    public String toString() {
+
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.settings;
+
+/**
+ * Represents the strategies to choose the read replica for a read.
+ */
+public enum ReplicaStrategy {
+
+    /**
+     * The replicas are used one after another.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The replica with the fewest active connections in its pool is used.
+     */
+    LEAST_ACTIVE
+}
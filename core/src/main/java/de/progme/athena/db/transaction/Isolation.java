@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.transaction;
+
+import java.sql.Connection;
+
+/**
+ * Represents an enum for the transaction isolation levels and their JDBC constants.
+ */
+public enum Isolation {
+
+    READ_UNCOMMITTED(Connection.TRANSACTION_READ_UNCOMMITTED),
+    READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+    REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+    SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+    /**
+     * The JDBC constant.
+     */
+    private final int level;
+
+    /**
+     * A new Isolation with the JDBC constant.
+     *
+     * @param level the JDBC constant.
+     */
+    Isolation(int level) {
+
+        this.level = level;
+    }
+
+    /**
+     * Gets the JDBC constant from java.sql.Connection.
+     *
+     * @return the level.
+     */
+    public int level() {
+
+        return level;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.transaction;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.DBResult;
+import de.progme.athena.query.Query;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a transaction that is pinned to one connection of the pool.
+ *
+ * While the transaction is running, every query of the Athena instance and its SerializationManager
+ * on the same thread uses the pinned connection, so they all take part in the transaction.
+ * Operations dispatched to other threads do not.
+ *
+ * If a statement fails inside the transaction, the transaction is marked as rollback only
+ * unless it is rolled back to a savepoint that was created before the failure.
+ */
+public class Transaction {
+
+    /**
+     * The Athena instance.
+     */
+    private final Athena athena;
+
+    /**
+     * The pinned connection.
+     */
+    private final Connection connection;
+
+    /**
+     * The pinned connection for the queries, which ignores close calls.
+     */
+    private final Connection pinned;
+
+    /**
+     * The actions that are run after the transaction was committed or rolled back.
+     */
+    private final List<Runnable> completionActions = new ArrayList<>();
+
+    /**
+     * Whether the transaction has to be rolled back.
+     */
+    private boolean rollbackOnly = false;
+
+    /**
+     * The rollback only mark at the time every savepoint was created.
+     */
+    private final Map<Savepoint, Boolean> savepoints = new IdentityHashMap<>();
+
+    /**
+     * Creates a new transaction on the connection. Transactions are created by Athena.
+     *
+     * @param athena the Athena instance.
+     * @param connection the connection with disabled auto-commit.
+     */
+    public Transaction(Athena athena, Connection connection) {
+
+        this.athena = athena;
+        this.connection = connection;
+        this.pinned = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                return null;
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * Executes a Query inside the transaction.
+     *
+     * @param query the Query.
+     * @return true if the query was executed, otherwise false.
+     */
+    public boolean execute(Query query) {
+
+        return athena.execute(query);
+    }
+
+    /**
+     * Executes a SQL raw query inside the transaction.
+     *
+     * @param query the SQL raw query.
+     * @return true if the query was executed, otherwise false.
+     */
+    public boolean execute(String query) {
+
+        return athena.execute(query);
+    }
+
+    /**
+     * Queries a prepared statement inside the transaction.
+     *
+     * @param query the query.
+     * @return the result as DBResult or null if an exception occurs.
+     */
+    public DBResult query(Query query) {
+
+        return athena.query(query);
+    }
+
+    /**
+     * Queries an SQL string query inside the transaction.
+     *
+     * @param query the SQL string query.
+     * @return the result as DBResult or null if an exception occurs.
+     */
+    public DBResult query(String query) {
+
+        return athena.query(query);
+    }
+
+    /**
+     * Executes the queries with JDBC batches inside the transaction.
+     * The batches are not committed on their own.
+     *
+     * @param queries the queries.
+     * @return the BatchResult with the update counts.
+     */
+    public BatchResult executeBatch(Collection<? extends Query> queries) {
+
+        return athena.executeBatch(queries);
+    }
+
+    /**
+     * Creates an unnamed savepoint.
+     *
+     * @return the savepoint.
+     * @throws SQLException if a database access error occurs.
+     */
+    public Savepoint savepoint() throws SQLException {
+
+        Savepoint savepoint = connection.setSavepoint();
+        savepoints.put(savepoint, rollbackOnly);
+
+        return savepoint;
+    }
+
+    /**
+     * Creates a named savepoint.
+     *
+     * @param name the name of the savepoint.
+     * @return the savepoint.
+     * @throws SQLException if a database access error occurs.
+     */
+    public Savepoint savepoint(String name) throws SQLException {
+
+        Savepoint savepoint = connection.setSavepoint(name);
+        savepoints.put(savepoint, rollbackOnly);
+
+        return savepoint;
+    }
+
+    /**
+     * Rolls back all changes after the savepoint.
+     * The rollback only mark is reset to its state when the savepoint was created, so it is only cleared
+     * if the failures that set it happened after the savepoint.
+     *
+     * @param savepoint the savepoint created by this transaction.
+     * @throws SQLException if a database access error occurs.
+     */
+    public void rollback(Savepoint savepoint) throws SQLException {
+
+        connection.rollback(savepoint);
+
+        Boolean marked = savepoints.get(savepoint);
+        if (marked != null) {
+            rollbackOnly = marked;
+        }
+    }
+
+    /**
+     * Releases the savepoint.
+     *
+     * @param savepoint the savepoint.
+     * @throws SQLException if a database access error occurs.
+     */
+    public void release(Savepoint savepoint) throws SQLException {
+
+        connection.releaseSavepoint(savepoint);
+        savepoints.remove(savepoint);
+    }
+
+    /**
+     * Marks the transaction so it is rolled back instead of committed at the end.
+     */
+    public void setRollbackOnly() {
+
+        rollbackOnly = true;
+    }
+
+    /**
+     * Returns whether the transaction is rolled back at the end.
+     *
+     * @return true if the transaction is rolled back, otherwise false.
+     */
+    public boolean isRollbackOnly() {
+
+        return rollbackOnly;
+    }
+
+    /**
+     * Adds an action that is run after the transaction was committed or rolled back.
+     *
+     * @param action the action.
+     */
+    public void afterCompletion(Runnable action) {
+
+        completionActions.add(action);
+    }
+
+    /**
+     * Runs all actions that were added with {@link #afterCompletion(Runnable)}.
+     */
+    public void complete() {
+
+        for (Runnable action : completionActions) {
+            action.run();
+        }
+        completionActions.clear();
+    }
+
+    /**
+     * Gets the pinned connection. Closing it has no effect.
+     *
+     * @return the connection.
+     */
+    public Connection connection() {
+
+        return pinned;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Represents the unit of work of a transaction.
+ */
+public interface TransactionConsumer {
+
+    /**
+     * The execute method which will be called inside the transaction.
+     * If an exception is thrown, the transaction is rolled back.
+     *
+     * @param transaction the transaction.
+     * @throws SQLException if a database access error occurs.
+     */
+    void execute(Transaction transaction) throws SQLException;
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a MetricsRecorder that keeps all metrics in memory.
+ *
+ * Latencies are recorded per statement shape, that is the SQL string with placeholders.
+ * Raw SQL strings with inlined values would create a new shape for every value,
+ * so after maxShapes different shapes all further ones are recorded under {@link #OTHER}.
+ */
+public class InMemoryMetrics implements MetricsRecorder {
+
+    /**
+     * The shape under which statements are recorded once the maximum number of shapes is reached.
+     */
+    public static final String OTHER = "<other>";
+
+    /**
+     * The maximum number of statement shapes.
+     */
+    private final int maxShapes;
+
+    /**
+     * The metrics of every statement shape.
+     */
+    private final Map<String, QueryMetrics> queries = new ConcurrentHashMap<>();
+
+    /**
+     * The connection acquire times in nanoseconds.
+     */
+    private final Histogram connectionAcquire = new Histogram();
+
+    /**
+     * The mapping times of the SerializationManager in nanoseconds, keyed by the mapped class.
+     */
+    private final Map<Class<?>, Histogram> mappings = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new recorder with at most 500 statement shapes.
+     */
+    public InMemoryMetrics() {
+
+        this(500);
+    }
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param maxShapes the maximum number of statement shapes.
+     */
+    public InMemoryMetrics(int maxShapes) {
+
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void connectionAcquired(long nanos) {
+
+        connectionAcquire.record(nanos);
+    }
+
+    @Override
+    public void queryExecuted(String sql, long nanos, boolean successful) {
+
+        shape(sql).executed(nanos, successful);
+    }
+
+    @Override
+    public void rowsReturned(String sql, int rows) {
+
+        shape(sql).returned(rows);
+    }
+
+    @Override
+    public void rowsMapped(Class<?> type, int rows, long nanos) {
+
+        mappings.computeIfAbsent(type, key -> new Histogram()).record(nanos);
+    }
+
+    /**
+     * Gets the metrics of a statement shape and creates them if there is still room for a new shape.
+     *
+     * @param sql the SQL string with placeholders.
+     * @return the metrics.
+     */
+    private QueryMetrics shape(String sql) {
+
+        QueryMetrics metrics = queries.get(sql);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        if (queries.size() >= maxShapes) {
+            sql = OTHER;
+        }
+
+        return queries.computeIfAbsent(sql, QueryMetrics::new);
+    }
+
+    /**
+     * Gets the metrics of all recorded statement shapes.
+     *
+     * @return the metrics as unmodifiable collection.
+     */
+    public Collection<QueryMetrics> queries() {
+
+        return Collections.unmodifiableCollection(queries.values());
+    }
+
+    /**
+     * Gets the metrics of a statement shape.
+     *
+     * @param sql the SQL string with placeholders.
+     * @return the metrics or null if the shape was never recorded.
+     */
+    public QueryMetrics query(String sql) {
+
+        return queries.get(sql);
+    }
+
+    /**
+     * Gets the connection acquire times in nanoseconds.
+     *
+     * @return the histogram.
+     */
+    public Histogram connectionAcquire() {
+
+        return connectionAcquire;
+    }
+
+    /**
+     * Gets the mapping times of the SerializationManager in nanoseconds for a class.
+     *
+     * @param type the mapped class.
+     * @return the histogram or null if the class was never mapped.
+     */
+    public Histogram mapping(Class<?> type) {
+
+        return mappings.get(type);
+    }
+
+    /**
+     * Removes all recorded metrics.
+     */
+    public void reset() {
+
+        queries.clear();
+        mappings.clear();
+        connectionAcquire.reset();
+    }
+}
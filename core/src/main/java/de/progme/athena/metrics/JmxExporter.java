@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+import de.progme.athena.Athena;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the pool, dispatcher and query metrics of an Athena instance via JMX.
+ * The pools of read replicas are exported as arrays in the order the replicas were added.
+ *
+ * The bean is registered as "de.progme.athena:type=Metrics,name=&lt;name&gt;" on the platform MBean server.
+ * Pool and dispatcher values are read when JMX asks for them, the query metrics come from an InMemoryMetrics
+ * that has to be set as recorder in the settings of the Athena instance.
+ */
+public class JmxExporter implements AutoCloseable {
+
+    /**
+     * The Athena instance.
+     */
+    private final Athena athena;
+
+    /**
+     * The recorded metrics.
+     */
+    private final InMemoryMetrics metrics;
+
+    /**
+     * The name of the registered bean.
+     */
+    private final ObjectName objectName;
+
+    /**
+     * Creates a new exporter.
+     *
+     * @param name the name of the bean, for example the pool name.
+     * @param athena the Athena instance.
+     * @param metrics the metrics the Athena instance records into.
+     */
+    public JmxExporter(String name, Athena athena, InMemoryMetrics metrics) {
+
+        this.athena = athena;
+        this.metrics = metrics;
+
+        try {
+            this.objectName = new ObjectName("de.progme.athena:type=Metrics,name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid name " + name, e);
+        }
+    }
+
+    /**
+     * Registers the bean on the platform MBean server.
+     *
+     * @return true if the bean was registered, otherwise false.
+     */
+    public boolean register() {
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), objectName);
+
+            return true;
+        } catch (JMException e) {
+            e.printStackTrace();
+
+            return false;
+        }
+    }
+
+    /**
+     * Unregisters the bean if it is registered.
+     */
+    @Override
+    public void close() {
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets the name of the bean.
+     *
+     * @return the object name.
+     */
+    public ObjectName objectName() {
+
+        return objectName;
+    }
+
+    /**
+     * Reads the values of the bean from Athena and the metrics.
+     */
+    private class Bean implements AthenaMetricsMXBean {
+
+        private PoolStats pool() {
+
+            PoolStats poolStats = athena.poolStats();
+
+            return poolStats != null ? poolStats : new PoolStats(0, 0, 0, 0);
+        }
+
+        @Override
+        public int getActiveConnections() {
+
+            return pool().active();
+        }
+
+        @Override
+        public int getIdleConnections() {
+
+            return pool().idle();
+        }
+
+        @Override
+        public int getPendingThreads() {
+
+            return pool().pending();
+        }
+
+        @Override
+        public int getTotalConnections() {
+
+            return pool().total();
+        }
+
+        @Override
+        public int[] getReplicaActiveConnections() {
+
+            return athena.replicaPoolStats().stream().mapToInt(PoolStats::active).toArray();
+        }
+
+        @Override
+        public int[] getReplicaIdleConnections() {
+
+            return athena.replicaPoolStats().stream().mapToInt(PoolStats::idle).toArray();
+        }
+
+        @Override
+        public int[] getReplicaPendingThreads() {
+
+            return athena.replicaPoolStats().stream().mapToInt(PoolStats::pending).toArray();
+        }
+
+        @Override
+        public int[] getReplicaTotalConnections() {
+
+            return athena.replicaPoolStats().stream().mapToInt(PoolStats::total).toArray();
+        }
+
+        @Override
+        public int getDispatcherQueueDepth() {
+
+            return athena.dispatcher().queueDepth();
+        }
+
+        @Override
+        public long getDispatcherRejected() {
+
+            return athena.dispatcher().rejectedCount();
+        }
+
+        @Override
+        public long getConnectionAcquireCount() {
+
+            return metrics.connectionAcquire().count();
+        }
+
+        @Override
+        public double getConnectionAcquireMeanMicros() {
+
+            return metrics.connectionAcquire().mean() / 1000;
+        }
+
+        @Override
+        public long getConnectionAcquireP99Micros() {
+
+            return TimeUnit.NANOSECONDS.toMicros(metrics.connectionAcquire().percentile(99));
+        }
+
+        @Override
+        public long getConnectionAcquireMaxMicros() {
+
+            return TimeUnit.NANOSECONDS.toMicros(metrics.connectionAcquire().max());
+        }
+
+        @Override
+        public List<QueryStatistics> getQueries() {
+
+            List<QueryStatistics> queries = new ArrayList<>();
+            for (QueryMetrics query : metrics.queries()) {
+                queries.add(new QueryStatistics(query));
+            }
+
+            return queries;
+        }
+
+        @Override
+        public void reset() {
+
+            metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+/**
+ * Represents the callbacks Athena and the SerializationManager invoke to report what they are doing.
+ *
+ * All methods have an empty default implementation, so a recorder only overrides what it needs.
+ * The callbacks are invoked on the thread that executes the query and must not block.
+ * Times are in nanoseconds.
+ */
+public interface MetricsRecorder {
+
+    /**
+     * A recorder that ignores everything.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    /**
+     * Called after a connection was taken from the pool.
+     *
+     * @param nanos the time the caller waited for the connection.
+     */
+    default void connectionAcquired(long nanos) {
+
+    }
+
+    /**
+     * Called after a statement was executed.
+     *
+     * @param sql the SQL string with placeholders which identifies the shape of the statement.
+     * @param nanos the execution time without the connection acquire time.
+     * @param successful whether the statement was executed without an exception.
+     */
+    default void queryExecuted(String sql, long nanos, boolean successful) {
+
+    }
+
+    /**
+     * Called after the rows of a query were read.
+     *
+     * @param sql the SQL string with placeholders which identifies the shape of the statement.
+     * @param rows the number of rows.
+     */
+    default void rowsReturned(String sql, int rows) {
+
+    }
+
+    /**
+     * Called after the SerializationManager mapped rows to objects.
+     *
+     * @param type the class the rows were mapped to.
+     * @param rows the number of rows.
+     * @param nanos the mapping time, including the read of the rows if they are mapped while they are read.
+     */
+    default void rowsMapped(Class<?> type, int rows, long nanos) {
+
+    }
+}
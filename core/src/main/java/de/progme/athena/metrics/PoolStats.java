@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+/**
+ * Represents a snapshot of the connection pool.
+ */
+public class PoolStats {
+
+    private final int active;
+
+    private final int idle;
+
+    private final int pending;
+
+    private final int total;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param active the number of connections in use.
+     * @param idle the number of connections that are not in use.
+     * @param pending the number of threads waiting for a connection.
+     * @param total the number of connections in the pool.
+     */
+    public PoolStats(int active, int idle, int pending, int total) {
+
+        this.active = active;
+        this.idle = idle;
+        this.pending = pending;
+        this.total = total;
+    }
+
+    public int active() {
+
+        return active;
+    }
+
+    public int idle() {
+
+        return idle;
+    }
+
+    public int pending() {
+
+        return pending;
+    }
+
+    public int total() {
+
+        return total;
+    }
+
+    @Override
+    public String toString() {
+
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", pending=" + pending +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents the recorded metrics of one statement shape.
+ */
+public class QueryMetrics {
+
+    /**
+     * The SQL string with placeholders.
+     */
+    private final String sql;
+
+    /**
+     * The execution times in nanoseconds.
+     */
+    private final Histogram latency = new Histogram();
+
+    /**
+     * The number of failed executions.
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * The number of returned rows.
+     */
+    private final LongAdder rows = new LongAdder();
+
+    /**
+     * Creates new metrics for the statement shape.
+     *
+     * @param sql the SQL string with placeholders.
+     */
+    QueryMetrics(String sql) {
+
+        this.sql = sql;
+    }
+
+    void executed(long nanos, boolean successful) {
+
+        latency.record(nanos);
+        if (!successful) {
+            errors.increment();
+        }
+    }
+
+    void returned(int rows) {
+
+        this.rows.add(rows);
+    }
+
+    public String sql() {
+
+        return sql;
+    }
+
+    public Histogram latency() {
+
+        return latency;
+    }
+
+    public long errors() {
+
+        return errors.sum();
+    }
+
+    public long rows() {
+
+        return rows.sum();
+    }
+
+    @Override
+    public String toString() {
+
+        return "QueryMetrics{" +
+                "sql='" + sql + '\'' +
+                ", latency=" + latency +
+                ", errors=" + errors() +
+                ", rows=" + rows() +
+                '}';
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the metrics of one statement shape as they are shown via JMX.
+ * Times are in microseconds.
+ */
+public class QueryStatistics {
+
+    private final String sql;
+
+    private final long count;
+
+    private final long errors;
+
+    private final long rows;
+
+    private final double meanMicros;
+
+    private final long p50Micros;
+
+    private final long p99Micros;
+
+    private final long maxMicros;
+
+    /**
+     * Creates the statistics from the recorded metrics.
+     *
+     * @param metrics the metrics.
+     */
+    QueryStatistics(QueryMetrics metrics) {
+
+        Histogram latency = metrics.latency();
+
+        this.sql = metrics.sql();
+        this.count = latency.count();
+        this.errors = metrics.errors();
+        this.rows = metrics.rows();
+        this.meanMicros = latency.mean() / 1000;
+        this.p50Micros = TimeUnit.NANOSECONDS.toMicros(latency.percentile(50));
+        this.p99Micros = TimeUnit.NANOSECONDS.toMicros(latency.percentile(99));
+        this.maxMicros = TimeUnit.NANOSECONDS.toMicros(latency.max());
+    }
+
+    public String getSql() {
+
+        return sql;
+    }
+
+    public long getCount() {
+
+        return count;
+    }
+
+    public long getErrors() {
+
+        return errors;
+    }
+
+    public long getRows() {
+
+        return rows;
+    }
+
+    public double getMeanMicros() {
+
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+
+        return maxMicros;
+    }
+}
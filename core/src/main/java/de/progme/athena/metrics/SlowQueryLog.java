@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs statements that take longer than a threshold to the "de.progme.athena.SlowQuery" logger.
+ *
+ * The time of a statement includes the time waited for a connection, so statements that are only
+ * slow because the pool is exhausted are logged as well. Only a sampled fraction of the slow
+ * statements is logged to keep the log readable under load.
+ */
+public class SlowQueryLog {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger("de.progme.athena.SlowQuery");
+
+    /**
+     * The maximum length of a logged value.
+     */
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    /**
+     * The threshold in nanoseconds.
+     */
+    private final long thresholdNanos;
+
+    /**
+     * The fraction of slow statements that are logged.
+     */
+    private final double sampleRate;
+
+    /**
+     * Creates a new slow query log.
+     *
+     * @param thresholdMs the threshold in milliseconds, a value of 0 or less disables the log.
+     * @param sampleRate the fraction of slow statements that are logged between 0 and 1.
+     */
+    public SlowQueryLog(long thresholdMs, double sampleRate) {
+
+        this.thresholdNanos = thresholdMs > 0 ? TimeUnit.MILLISECONDS.toNanos(thresholdMs) : Long.MAX_VALUE;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Returns whether a statement with the given time should be logged.
+     *
+     * @param nanos the time of the statement including the connection wait time.
+     * @return true if the statement is slow and sampled, otherwise false.
+     */
+    public boolean isSlow(long nanos) {
+
+        if (nanos < thresholdNanos) {
+            return false;
+        }
+
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Logs a slow statement.
+     *
+     * @param sql the SQL string.
+     * @param parameters the bound values.
+     * @param nanos the time of the statement including the connection wait time.
+     * @param waitNanos the time waited for the connection.
+     * @param rows the number of affected or returned rows or -1 if it is unknown.
+     * @param successful whether the statement was executed without an exception.
+     */
+    public void log(String sql, List<Object> parameters, long nanos, long waitNanos, int rows, boolean successful) {
+
+        if (!LOGGER.isWarnEnabled()) {
+            return;
+        }
+
+        LOGGER.warn("Slow query took {} ms (connection wait {} ms, rows {}{}): {} values {}",
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos),
+                rows,
+                successful ? "" : ", failed",
+                sql,
+                values(parameters));
+    }
+
+    /**
+     * Formats the bound values and shortens long values.
+     *
+     * @param parameters the bound values.
+     * @return the formatted values.
+     */
+    private static String values(List<Object> parameters) {
+
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+
+            String value = String.valueOf(parameters.get(i));
+            if (value.length() > MAX_VALUE_LENGTH) {
+                sb.append(value, 0, MAX_VALUE_LENGTH).append("...");
+            } else {
+                sb.append(value);
+            }
+        }
+
+        return sb.append("]").toString();
+    }
+}
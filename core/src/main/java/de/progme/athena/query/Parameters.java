@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.query;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.WeakHashMap;
+
+/**
+ * Represents the binding of query values to the placeholders of a prepared statement.
+ *
+ * Every value is bound with the setter of its java type, so numbers, timestamps and binary data
+ * are sent without a detour over their string form. Streams and readers are handed to the driver as they are,
+ * so large objects are not copied into memory unless the driver cannot stream parameters.
+ * Instants are bound as UTC timestamps, except on SQLite where they are stored as UTC text in the form yyyy/MM/dd HH:mm:ss.
+ */
+public final class Parameters {
+
+    /**
+     * The UTC time zone instants are stored in.
+     */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    /**
+     * The text form instants are stored in with SQLite.
+     */
+    private static final DateTimeFormatter SQLITE_DATETIME_FORMATTER = DateTimeFormatter
+            .ofPattern("yyyy/MM/dd HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * Whether the physical connections are SQLite connections, so the database metadata is read once per connection.
+     */
+    private static final Map<Connection, Boolean> SQLITE_CONNECTIONS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private Parameters() {
+
+    }
+
+    /**
+     * Binds the value to the placeholder with the setter of its type.
+     *
+     * @param preparedStatement the prepared statement.
+     * @param index the index of the placeholder starting at 1.
+     * @param value the value or null for SQL NULL.
+     * @throws SQLException if a database access error occurs.
+     */
+    public static void set(PreparedStatement preparedStatement, int index, Object value) throws SQLException {
+
+        if (value == null) {
+            preparedStatement.setNull(index, Types.NULL);
+        } else if (value instanceof String) {
+            preparedStatement.setString(index, (String) value);
+        } else if (value instanceof Long) {
+            preparedStatement.setLong(index, (Long) value);
+        } else if (value instanceof Integer) {
+            preparedStatement.setInt(index, (Integer) value);
+        } else if (value instanceof Double) {
+            preparedStatement.setDouble(index, (Double) value);
+        } else if (value instanceof Float) {
+            preparedStatement.setFloat(index, (Float) value);
+        } else if (value instanceof Boolean) {
+            preparedStatement.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Short) {
+            preparedStatement.setShort(index, (Short) value);
+        } else if (value instanceof Byte) {
+            preparedStatement.setByte(index, (Byte) value);
+        } else if (value instanceof Character) {
+            preparedStatement.setString(index, value.toString());
+        } else if (value instanceof BigDecimal) {
+            preparedStatement.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Timestamp) {
+            preparedStatement.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof Instant) {
+            if (isSQLite(preparedStatement)) {
+                // SQLite has no datetime type, so instants keep their text form and stored rows still compare and order with new ones
+                preparedStatement.setString(index, SQLITE_DATETIME_FORMATTER.format((Instant) value));
+            } else {
+                preparedStatement.setTimestamp(index, Timestamp.from((Instant) value), Calendar.getInstance(UTC));
+            }
+        } else if (value instanceof byte[]) {
+            preparedStatement.setBytes(index, (byte[]) value);
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            preparedStatement.setBytes(index, bytes);
+        } else if (value instanceof InputStream) {
+            try {
+                preparedStatement.setBinaryStream(index, (InputStream) value);
+            } catch (SQLFeatureNotSupportedException e) {
+                preparedStatement.setBytes(index, readAll((InputStream) value));
+            }
+        } else if (value instanceof Reader) {
+            try {
+                preparedStatement.setCharacterStream(index, (Reader) value);
+            } catch (SQLFeatureNotSupportedException e) {
+                preparedStatement.setString(index, readAll((Reader) value));
+            }
+        } else {
+            preparedStatement.setObject(index, value);
+        }
+    }
+
+    /**
+     * Returns whether the statement belongs to a SQLite connection.
+     * The result is cached for the physical connection behind the pool proxy, which lives as long as the pool keeps it.
+     *
+     * @param preparedStatement the prepared statement.
+     * @return true if the database is SQLite, otherwise false.
+     * @throws SQLException if a database access error occurs.
+     */
+    private static boolean isSQLite(PreparedStatement preparedStatement) throws SQLException {
+
+        Connection connection = preparedStatement.getConnection();
+        try {
+            connection = connection.unwrap(Connection.class);
+        } catch (SQLException e) {
+            // not a wrapper, the connection is cached itself
+        }
+
+        Boolean sqlite = SQLITE_CONNECTIONS.get(connection);
+        if (sqlite == null) {
+            sqlite = "SQLite".equals(connection.getMetaData().getDatabaseProductName());
+            SQLITE_CONNECTIONS.put(connection, sqlite);
+        }
+
+        return sqlite;
+    }
+
+    /**
+     * Reads the remaining bytes of a stream for drivers that cannot stream parameters.
+     *
+     * @param inputStream the stream.
+     * @return the bytes.
+     * @throws SQLException if the stream cannot be read.
+     */
+    private static byte[] readAll(InputStream inputStream) throws SQLException {
+
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new SQLException("Cannot read the binary stream", e);
+        }
+    }
+
+    /**
+     * Reads the remaining characters of a reader for drivers that cannot stream parameters.
+     *
+     * @param reader the reader.
+     * @return the characters.
+     * @throws SQLException if the reader cannot be read.
+     */
+    private static String readAll(Reader reader) throws SQLException {
+
+        try {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+
+            return builder.toString();
+        } catch (IOException e) {
+            throw new SQLException("Cannot read the character stream", e);
+        }
+    }
+}
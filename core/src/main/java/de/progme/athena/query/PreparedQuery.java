@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a reusable query template.
+ *
+ * The SQL string is built only once, every execution only supplies the values for the placeholders.
+ * Templates are immutable and can be shared between threads.
+ */
+public class PreparedQuery {
+
+    /**
+     * The SQL query string.
+     */
+    private final String sql;
+
+    /**
+     * The number of placeholders in the SQL query string.
+     */
+    private final int parameterCount;
+
+    /**
+     * Creates a new template with the shape of the given query.
+     * The values of the query are only used to count the placeholders.
+     *
+     * @param query the query.
+     */
+    public PreparedQuery(Query query) {
+
+        this(query.sql(), query.parameters().size());
+    }
+
+    /**
+     * Creates a new template with the SQL query string and the number of placeholders.
+     *
+     * @param sql the SQL query string.
+     * @param parameterCount the number of placeholders.
+     */
+    public PreparedQuery(String sql, int parameterCount) {
+
+        this.sql = sql;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Gets the SQL query string.
+     *
+     * @return the SQL query string.
+     */
+    public String sql() {
+
+        return sql;
+    }
+
+    /**
+     * Gets the number of placeholders.
+     *
+     * @return the number of placeholders.
+     */
+    public int parameterCount() {
+
+        return parameterCount;
+    }
+
+    /**
+     * Creates a query from the template with the given values.
+     *
+     * @param values the values in the order of their placeholders.
+     * @return the query.
+     */
+    public Query bind(Object... values) {
+
+        return bind(Arrays.asList(values));
+    }
+
+    /**
+     * Creates a query from the template with the given values.
+     *
+     * @param values the values in the order of their placeholders.
+     * @return the query.
+     */
+    public Query bind(List<Object> values) {
+
+        if (values.size() != parameterCount) {
+            throw new IllegalArgumentException("Expected " + parameterCount + " values but got " + values.size());
+        }
+
+        return new BoundQuery(sql, Collections.unmodifiableList(values));
+    }
+
+    /**
+     * Represents a query created from a template.
+     */
+    private static class BoundQuery implements Query {
+
+        private final String sql;
+
+        private final List<Object> parameters;
+
+        private BoundQuery(String sql, List<Object> parameters) {
+
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public String sql() {
+
+            return sql;
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(Connection connection) {
+
+            PreparedStatement preparedStatement = null;
+            try {
+                preparedStatement = connection.prepareStatement(sql);
+                bind(preparedStatement);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+
+            return preparedStatement;
+        }
+
+        @Override
+        public List<Object> parameters() {
+
+            return parameters;
+        }
+    }
+}
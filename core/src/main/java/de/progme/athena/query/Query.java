@@ -21,6 +21,9 @@ package de.progme.athena.query;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Created by Marvin Erkes on 26.08.2015.
@@ -43,4 +46,30 @@ public interface Query {
      * @return the prepared statement.
      */
     PreparedStatement prepareStatement(Connection connection);
+
+    /**
+     * Gets the values of the query in the order of their placeholders.
+     *
+     * @return the values.
+     */
+    default List<Object> parameters() {
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Binds the values of the query to the placeholders of an already prepared statement.
+     * Every value is bound with the setter of its type.
+     * This allows to reuse one prepared statement for many queries with the same SQL.
+     *
+     * @param preparedStatement the prepared statement.
+     * @throws SQLException if a database access error occurs.
+     */
+    default void bind(PreparedStatement preparedStatement) throws SQLException {
+
+        List<Object> parameters = parameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            Parameters.set(preparedStatement, i + 1, parameters.get(i));
+        }
+    }
 }
@@ -20,15 +20,14 @@
 package de.progme.athena.query.core;
 
 import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.query.PreparedQuery;
 import de.progme.athena.query.Query;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Created by Marvin Erkes on 28.09.2015.
@@ -39,15 +38,12 @@ public class DeleteQuery implements Query {
 
     private String table;
 
-    private LinkedHashMap<String, String> wheres = new LinkedHashMap<>();
-
-    private List<String> whereOperators = new ArrayList<>();
+    private List<Condition> wheres = new ArrayList<>();
 
     public DeleteQuery(Builder builder) {
 
         this.table = builder.table;
         this.wheres = builder.wheres;
-        this.whereOperators = builder.whereOperators;
     }
 
     @Override
@@ -57,14 +53,11 @@ public class DeleteQuery implements Query {
 
         sb.append("DELETE FROM ").append(table);
 
-        //TODO: Improve
         if(wheres.size() > 0) {
             sb.append(" WHERE ");
 
-            int pos = 0;
-            for (Map.Entry<String, String> entry : wheres.entrySet()) {
-                sb.append(entry.getKey()).append(whereOperators.get(pos)).append("?").append(((wheres.size() > 1 && pos < wheres.size() - 1) ? " AND " : ""));
-                pos++;
+            for (int i = 0; i < wheres.size(); i++) {
+                sb.append(wheres.get(i).sql()).append((i < wheres.size() - 1) ? " AND " : "");
             }
         }
 
@@ -79,10 +72,7 @@ public class DeleteQuery implements Query {
         PreparedStatement preparedStatement = null;
         try {
             preparedStatement = connection.prepareStatement(sql());
-            List<String> wheresList = new ArrayList<>(wheres.values());
-            for (int i = 0; i < wheresList.size(); i++) {
-                preparedStatement.setObject(i + 1, wheresList.get(i));
-            }
+            bind(preparedStatement);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -90,6 +80,17 @@ public class DeleteQuery implements Query {
         return preparedStatement;
     }
 
+    @Override
+    public List<Object> parameters() {
+
+        List<Object> parameters = new ArrayList<>(wheres.size());
+        for (Condition condition : wheres) {
+            parameters.addAll(condition.values());
+        }
+
+        return parameters;
+    }
+
     /**
      * Represents the builder for a delete query.
      */
@@ -97,9 +98,7 @@ public class DeleteQuery implements Query {
 
         private String table;
 
-        private LinkedHashMap<String, String> wheres = new LinkedHashMap<>();
-
-        private List<String> whereOperators = new ArrayList<>();
+        private List<Condition> wheres = new ArrayList<>();
 
         /**
          * Sets the table name from which table data will be deleted.
@@ -122,8 +121,7 @@ public class DeleteQuery implements Query {
          */
         public Builder where(Condition condition) {
 
-            this.wheres.put(condition.column(), condition.value());
-            this.whereOperators.add(condition.operator().sql());
+            this.wheres.add(condition);
 
             return this;
         }
@@ -137,5 +135,16 @@ public class DeleteQuery implements Query {
 
             return new DeleteQuery(this);
         }
+
+        /**
+         * Gets a reusable template of the query.
+         * The SQL is built only once, the values given to this builder only define the number of placeholders.
+         *
+         * @return the PreparedQuery.
+         */
+        public PreparedQuery prepare() {
+
+            return new PreparedQuery(build());
+        }
     }
 }
@@ -19,6 +19,7 @@
 
 package de.progme.athena.query.core;
 
+import de.progme.athena.query.PreparedQuery;
 import de.progme.athena.query.Query;
 
 import java.sql.Connection;
@@ -39,13 +40,16 @@ public class InsertQuery implements Query {
 
     private List<String> columns;
 
-    private List<String> values;
+    private List<List<Object>> rows;
 
     public InsertQuery(Builder builder) {
 
         this.table = builder.table;
         this.columns = builder.columns;
-        this.values = builder.values;
+        this.rows = new ArrayList<>(builder.rows);
+        if(builder.values.size() > 0 || rows.isEmpty()) {
+            this.rows.add(builder.values);
+        }
     }
 
     @Override
@@ -66,16 +70,22 @@ public class InsertQuery implements Query {
             sb.append(")");
         }
 
-        sb.append(" VALUES ").append("(");
+        sb.append(" VALUES ");
+
+        for (int j = 0; j < rows.size(); j++) {
+            List<Object> values = rows.get(j);
 
-        for (int i = 0; i < values.size(); i++) {
-            if(i < values.size() - 1)
-                sb.append("?,");
-            else
-                sb.append("?");
+            sb.append("(");
+            for (int i = 0; i < values.size(); i++) {
+                if(i < values.size() - 1)
+                    sb.append("?,");
+                else
+                    sb.append("?");
+            }
+            sb.append((j < rows.size() - 1) ? ")," : ")");
         }
 
-        return sb.append(")").append(";").toString();
+        return sb.append(";").toString();
     }
 
     @Override
@@ -84,9 +94,7 @@ public class InsertQuery implements Query {
         PreparedStatement preparedStatement = null;
         try {
             preparedStatement = connection.prepareStatement(sql());
-            for (int i = 0; i < values.size(); i++) {
-                preparedStatement.setObject(i + 1, values.get(i));
-            }
+            bind(preparedStatement);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -94,6 +102,27 @@ public class InsertQuery implements Query {
         return preparedStatement;
     }
 
+    @Override
+    public List<Object> parameters() {
+
+        List<Object> parameters = new ArrayList<>();
+        for (List<Object> values : rows) {
+            parameters.addAll(values);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Gets the number of value tuples that will be inserted.
+     *
+     * @return the number of rows.
+     */
+    public int rows() {
+
+        return rows.size();
+    }
+
     /**
      * Represents the builder for an insert query.
      */
@@ -103,7 +132,9 @@ public class InsertQuery implements Query {
 
         private List<String> columns = new ArrayList<>();
 
-        private List<String> values = new ArrayList<>();
+        private List<Object> values = new ArrayList<>();
+
+        private List<List<Object>> rows = new ArrayList<>();
 
         /**
          * Sets the table name in which the query will insert.
@@ -150,7 +181,7 @@ public class InsertQuery implements Query {
          * @param values the values.
          * @return the builder.
          */
-        public Builder values(String... values) {
+        public Builder values(Object... values) {
 
             this.values.addAll(Arrays.asList(values));
 
@@ -163,13 +194,43 @@ public class InsertQuery implements Query {
          * @param value the value.
          * @return the builder.
          */
-        public Builder value(String value) {
+        public Builder value(Object value) {
 
             this.values.add(value);
 
             return this;
         }
 
+        /**
+         * Finishes the current value tuple and starts a new one.
+         * All tuples are inserted with one multi-row 'VALUES (..),(..)' statement.
+         *
+         * @return the builder.
+         */
+        public Builder row() {
+
+            if(values.size() > 0) {
+                this.rows.add(values);
+                this.values = new ArrayList<>();
+            }
+
+            return this;
+        }
+
+        /**
+         * Adds a complete value tuple as a new row.
+         *
+         * @param values the values of the row.
+         * @return the builder.
+         */
+        public Builder row(Object... values) {
+
+            row();
+            this.values.addAll(Arrays.asList(values));
+
+            return row();
+        }
+
         /**
          * Gets the finished InsertQuery.
          *
@@ -179,5 +240,16 @@ public class InsertQuery implements Query {
 
             return new InsertQuery(this);
         }
+
+        /**
+         * Gets a reusable template of the query.
+         * The SQL is built only once, the values given to this builder only define the number of placeholders.
+         *
+         * @return the PreparedQuery.
+         */
+        public PreparedQuery prepare() {
+
+            return new PreparedQuery(build());
+        }
     }
 }
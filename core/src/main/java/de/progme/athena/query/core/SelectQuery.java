@@ -23,6 +23,7 @@ import de.progme.athena.db.Function;
 import de.progme.athena.db.Join;
 import de.progme.athena.db.serialization.Condition;
 import de.progme.athena.db.serialization.Order;
+import de.progme.athena.query.PreparedQuery;
 import de.progme.athena.query.Query;
 
 import java.sql.Connection;
@@ -47,8 +48,6 @@ public class SelectQuery implements Query {
 
     private List<Condition> wheres = new ArrayList<>();
 
-    private List<String> operators = new ArrayList<>();
-
     private String groupBy = null;
 
     private String orderBy = null;
@@ -62,7 +61,6 @@ public class SelectQuery implements Query {
         this.table = builder.table;
         this.wheres = builder.wheres;
         this.joins = builder.joins;
-        this.operators = builder.operators;
         this.groupBy = builder.groupBy;
         this.orderBy = builder.orderBy;
         this.limit = builder.limit;
@@ -82,7 +80,9 @@ public class SelectQuery implements Query {
         }
 
         if(functions.size() > 0) {
-            sb.append(", ");
+            if(selects.size() > 0) {
+                sb.append(", ");
+            }
             for (int i = 0; i < functions.size(); i++) {
                 Function function = functions.get(i);
                 if (i < functions.size() - 1) {
@@ -106,14 +106,11 @@ public class SelectQuery implements Query {
             }
         }
 
-        //TODO: Improve
         if(wheres.size() > 0) {
             sb.append(" WHERE ");
 
-            int pos = 0;
-            for (Condition condition : wheres) {
-                sb.append(condition.column()).append(operators.get(pos)).append("?").append(((wheres.size() > 1 && pos < wheres.size() - 1) ? " AND " : ""));
-                pos++;
+            for (int i = 0; i < wheres.size(); i++) {
+                sb.append(wheres.get(i).sql()).append((i < wheres.size() - 1) ? " AND " : "");
             }
         }
 
@@ -138,9 +135,7 @@ public class SelectQuery implements Query {
         PreparedStatement preparedStatement = null;
         try {
             preparedStatement = connection.prepareStatement(sql());
-            for (int i = 0; i < wheres.size(); i++) {
-                preparedStatement.setObject(i + 1, wheres.get(i).value());
-            }
+            bind(preparedStatement);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -148,6 +143,17 @@ public class SelectQuery implements Query {
         return preparedStatement;
     }
 
+    @Override
+    public List<Object> parameters() {
+
+        List<Object> parameters = new ArrayList<>(wheres.size());
+        for (Condition condition : wheres) {
+            parameters.addAll(condition.values());
+        }
+
+        return parameters;
+    }
+
     /**
      * Represents the builder for a select query.
      */
@@ -163,8 +169,6 @@ public class SelectQuery implements Query {
 
         private List<Condition> wheres = new ArrayList<>();
 
-        private List<String> operators = new ArrayList<>();
-
         private String groupBy = null;
 
         private String orderBy = null;
@@ -247,7 +251,6 @@ public class SelectQuery implements Query {
             if (condition == null) return this;
 
             this.wheres.add(condition);
-            this.operators.add(condition.operator().sql());
 
             return this;
         }
@@ -322,5 +325,16 @@ public class SelectQuery implements Query {
 
             return new SelectQuery(this);
         }
+
+        /**
+         * Gets a reusable template of the query.
+         * The SQL is built only once, the values given to this builder only define the number of placeholders.
+         *
+         * @return the PreparedQuery.
+         */
+        public PreparedQuery prepare() {
+
+            return new PreparedQuery(build());
+        }
     }
 }
@@ -20,6 +20,7 @@
 package de.progme.athena.query.core;
 
 import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.query.PreparedQuery;
 import de.progme.athena.query.Query;
 
 import java.sql.Connection;
@@ -38,18 +39,15 @@ public class UpdateQuery implements Query {
 
     private String table;
 
-    private LinkedHashMap<String, String> values = new LinkedHashMap<>();
+    private LinkedHashMap<String, Object> values = new LinkedHashMap<>();
 
-    private LinkedHashMap<String, String> wheres = new LinkedHashMap<>();
-
-    private List<String> whereOperators = new ArrayList<>();
+    private List<Condition> wheres = new ArrayList<>();
 
     public UpdateQuery(Builder builder) {
 
         this.table = builder.table;
         this.values = builder.values;
         this.wheres = builder.wheres;
-        this.whereOperators = builder.whereOperators;
     }
 
     @Override
@@ -71,10 +69,8 @@ public class UpdateQuery implements Query {
         if(wheres.size() > 0) {
             sb.append(" WHERE ");
 
-            int i = 0;
-            for (String whereKey : wheres.keySet()) {
-                sb.append(whereKey).append(whereOperators.get(i)).append("?").append((i < wheres.size() - 1) ? " AND " : "");
-                i++;
+            for (int i = 0; i < wheres.size(); i++) {
+                sb.append(wheres.get(i).sql()).append((i < wheres.size() - 1) ? " AND " : "");
             }
         }
 
@@ -87,18 +83,7 @@ public class UpdateQuery implements Query {
         PreparedStatement preparedStatement = null;
         try {
             preparedStatement = connection.prepareStatement(sql());
-            List<String> valueList = new ArrayList<>(values.values());
-            int offset = 0;
-            for (int j = 0; j < valueList.size(); j++) {
-                preparedStatement.setObject(j + 1, valueList.get(j));
-
-                offset++;
-            }
-
-            List<String> wheresList = new ArrayList<>(wheres.values());
-            for (int k = 0; k < wheresList.size(); k++) {
-                preparedStatement.setObject(k + offset + 1, wheresList.get(k));
-            }
+            bind(preparedStatement);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -106,6 +91,18 @@ public class UpdateQuery implements Query {
         return preparedStatement;
     }
 
+    @Override
+    public List<Object> parameters() {
+
+        List<Object> parameters = new ArrayList<>(values.size() + wheres.size());
+        parameters.addAll(values.values());
+        for (Condition condition : wheres) {
+            parameters.addAll(condition.values());
+        }
+
+        return parameters;
+    }
+
     /**
      * Represents the builder for an update query.
      */
@@ -113,11 +110,9 @@ public class UpdateQuery implements Query {
 
         private String table;
 
-        private LinkedHashMap<String, String> values = new LinkedHashMap<>();
+        private LinkedHashMap<String, Object> values = new LinkedHashMap<>();
 
-        private LinkedHashMap<String, String> wheres = new LinkedHashMap<>();
-
-        private List<String> whereOperators = new ArrayList<>();
+        private List<Condition> wheres = new ArrayList<>();
 
         /**
          * Sets the table that will be effected.
@@ -139,7 +134,7 @@ public class UpdateQuery implements Query {
          * @param newValue the new value.
          * @return the builder.
          */
-        public Builder set(String columnName, String newValue) {
+        public Builder set(String columnName, Object newValue) {
 
             this.values.put(columnName, newValue);
 
@@ -154,8 +149,7 @@ public class UpdateQuery implements Query {
          */
         public Builder where(Condition condition) {
 
-            this.wheres.put(condition.column(), condition.value());
-            this.whereOperators.add(condition.operator().sql());
+            this.wheres.add(condition);
 
             return this;
         }
@@ -169,5 +163,16 @@ public class UpdateQuery implements Query {
 
             return new UpdateQuery(this);
         }
+
+        /**
+         * Gets a reusable template of the query.
+         * The SQL is built only once, the values given to this builder only define the number of placeholders.
+         *
+         * @return the PreparedQuery.
+         */
+        public PreparedQuery prepare() {
+
+            return new PreparedQuery(build());
+        }
     }
 }
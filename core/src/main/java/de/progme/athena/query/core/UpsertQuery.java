@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.query.core;
+
+import de.progme.athena.db.Type;
+import de.progme.athena.query.PreparedQuery;
+import de.progme.athena.query.Query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a SQL INSERT query that updates the existing row if a row with the same key exists.
+ *
+ * MySQL uses 'ON DUPLICATE KEY UPDATE', SQLite uses 'ON CONFLICT(..) DO UPDATE' which needs SQLite 3.24 or newer.
+ */
+public class UpsertQuery implements Query {
+
+    private Type type;
+
+    private String table;
+
+    private List<String> columns;
+
+    private List<List<Object>> rows;
+
+    private List<String> conflictColumns;
+
+    private List<String> updateColumns;
+
+    public UpsertQuery(Builder builder) {
+
+        this.type = builder.type;
+        this.table = builder.table;
+        this.columns = builder.columns;
+        this.conflictColumns = builder.conflictColumns;
+        this.rows = new ArrayList<>(builder.rows);
+        if(builder.values.size() > 0 || rows.isEmpty()) {
+            this.rows.add(builder.values);
+        }
+
+        if(builder.updateColumns != null) {
+            this.updateColumns = builder.updateColumns;
+        } else {
+            this.updateColumns = new ArrayList<>();
+            for (String column : columns) {
+                if(!conflictColumns.contains(column)) {
+                    updateColumns.add(column);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String sql() {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("INSERT INTO ").append(table);
+
+        if(columns.size() > 0) {
+            sb.append(" (").append(String.join(",", columns)).append(")");
+        }
+
+        sb.append(" VALUES ");
+
+        for (int j = 0; j < rows.size(); j++) {
+            List<Object> values = rows.get(j);
+
+            sb.append("(");
+            for (int i = 0; i < values.size(); i++) {
+                if(i < values.size() - 1)
+                    sb.append("?,");
+                else
+                    sb.append("?");
+            }
+            sb.append((j < rows.size() - 1) ? ")," : ")");
+        }
+
+        if(type == Type.SQLITE) {
+            sb.append(" ON CONFLICT(").append(String.join(",", conflictColumns)).append(")");
+
+            if(updateColumns.isEmpty()) {
+                sb.append(" DO NOTHING");
+            } else {
+                sb.append(" DO UPDATE SET ");
+                for (int i = 0; i < updateColumns.size(); i++) {
+                    String column = updateColumns.get(i);
+                    sb.append(column).append("=excluded.").append(column).append((i < updateColumns.size() - 1) ? "," : "");
+                }
+            }
+        } else {
+            sb.append(" ON DUPLICATE KEY UPDATE ");
+
+            if(updateColumns.isEmpty()) {
+                // Assigning a key column to itself keeps the existing row unchanged
+                String column = !conflictColumns.isEmpty() ? conflictColumns.get(0) : columns.get(0);
+                sb.append(column).append("=").append(column);
+            } else {
+                for (int i = 0; i < updateColumns.size(); i++) {
+                    String column = updateColumns.get(i);
+                    sb.append(column).append("=VALUES(").append(column).append(")").append((i < updateColumns.size() - 1) ? "," : "");
+                }
+            }
+        }
+
+        return sb.append(";").toString();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(Connection connection) {
+
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = connection.prepareStatement(sql());
+            bind(preparedStatement);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return preparedStatement;
+    }
+
+    @Override
+    public List<Object> parameters() {
+
+        List<Object> parameters = new ArrayList<>();
+        for (List<Object> values : rows) {
+            parameters.addAll(values);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Gets the number of value tuples that will be inserted or updated.
+     *
+     * @return the number of rows.
+     */
+    public int rows() {
+
+        return rows.size();
+    }
+
+    /**
+     * Represents the builder for an upsert query.
+     */
+    public static class Builder {
+
+        private Type type = Type.MYSQL;
+
+        private String table;
+
+        private List<String> columns = new ArrayList<>();
+
+        private List<Object> values = new ArrayList<>();
+
+        private List<List<Object>> rows = new ArrayList<>();
+
+        private List<String> conflictColumns = new ArrayList<>();
+
+        private List<String> updateColumns = null;
+
+        /**
+         * Sets the database type which decides the SQL dialect.
+         *
+         * @param type the database type.
+         * @return the builder.
+         */
+        public Builder type(Type type) {
+
+            this.type = type;
+
+            return this;
+        }
+
+        /**
+         * Sets the table name in which the query will insert.
+         *
+         * @param table the table name.
+         * @return the builder.
+         */
+        public Builder into(String table) {
+
+            this.table = table;
+
+            return this;
+        }
+
+        /**
+         * Adds a parameter list of column names.
+         *
+         * @param columns the column names.
+         * @return the builder.
+         */
+        public Builder columns(String... columns) {
+
+            this.columns.addAll(Arrays.asList(columns));
+
+            return this;
+        }
+
+        /**
+         * Adds a column name.
+         *
+         * @param name the column name.
+         * @return the builder.
+         */
+        public Builder column(String name) {
+
+            this.columns.add(name);
+
+            return this;
+        }
+
+        /**
+         * Adds a parameter list of values.
+         *
+         * @param values the values.
+         * @return the builder.
+         */
+        public Builder values(Object... values) {
+
+            this.values.addAll(Arrays.asList(values));
+
+            return this;
+        }
+
+        /**
+         * Adds a value.
+         *
+         * @param value the value.
+         * @return the builder.
+         */
+        public Builder value(Object value) {
+
+            this.values.add(value);
+
+            return this;
+        }
+
+        /**
+         * Finishes the current value tuple and starts a new one.
+         *
+         * @return the builder.
+         */
+        public Builder row() {
+
+            if(values.size() > 0) {
+                this.rows.add(values);
+                this.values = new ArrayList<>();
+            }
+
+            return this;
+        }
+
+        /**
+         * Adds a complete value tuple as a new row.
+         *
+         * @param values the values of the row.
+         * @return the builder.
+         */
+        public Builder row(Object... values) {
+
+            row();
+            this.values.addAll(Arrays.asList(values));
+
+            return row();
+        }
+
+        /**
+         * Adds the columns of the primary key or unique index that identify an existing row.
+         * MySQL finds the conflicting key itself and only uses them to exclude them from the update.
+         *
+         * @param columns the column names.
+         * @return the builder.
+         */
+        public Builder conflict(String... columns) {
+
+            this.conflictColumns.addAll(Arrays.asList(columns));
+
+            return this;
+        }
+
+        /**
+         * Sets the columns that are updated if the row exists.
+         * By default all columns except the conflict columns are updated.
+         *
+         * @param columns the column names.
+         * @return the builder.
+         */
+        public Builder update(String... columns) {
+
+            this.updateColumns = new ArrayList<>(Arrays.asList(columns));
+
+            return this;
+        }
+
+        /**
+         * Gets the finished UpsertQuery.
+         *
+         * @return the UpsertQuery.
+         */
+        public UpsertQuery build() {
+
+            return new UpsertQuery(this);
+        }
+
+        /**
+         * Gets a reusable template of the query.
+         * The SQL is built only once, the values given to this builder only define the number of placeholders.
+         *
+         * @return the PreparedQuery.
+         */
+        public PreparedQuery prepare() {
+
+            return new PreparedQuery(build());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.shard;
+
+import java.util.Arrays;
+
+/**
+ * Represents the strategy that picks the shard for the value of a shard key.
+ *
+ * The value is passed in the string form that is also used for conditions, so a row and a condition
+ * with the same key are always routed to the same shard.
+ */
+@FunctionalInterface
+public interface ShardStrategy {
+
+    /**
+     * Distributes the keys by the hash code of their string value.
+     */
+    ShardStrategy HASH = (key, shards) -> Math.floorMod(key.hashCode(), shards);
+
+    /**
+     * Gets the shard for the key.
+     *
+     * @param key the value of the shard key.
+     * @param shards the number of shards.
+     * @return the index of the shard from 0 to shards - 1.
+     */
+    int shard(String key, int shards);
+
+    /**
+     * Creates a strategy that distributes numeric keys by ranges.
+     * Keys lower than the first bound go to shard 0, keys lower than the second bound to shard 1 and so on.
+     * All other keys go to the last shard.
+     *
+     * @param upperBounds the exclusive upper bounds in ascending order, one less than the number of shards.
+     * @return the strategy.
+     */
+    static ShardStrategy range(long... upperBounds) {
+
+        long[] bounds = upperBounds.clone();
+        Arrays.sort(bounds);
+
+        return (key, shards) -> {
+            long value = Long.parseLong(key);
+
+            for (int i = 0; i < bounds.length && i < shards - 1; i++) {
+                if (value < bounds[i]) {
+                    return i;
+                }
+            }
+
+            return Math.min(bounds.length, shards - 1);
+        };
+    }
+}
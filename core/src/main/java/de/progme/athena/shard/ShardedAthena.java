@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.shard;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.settings.AthenaSettings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a facade over several Athena instances that each hold one shard of the sharded tables.
+ *
+ * Every shard has its own connection pool and dispatcher. Tables with a ShardKey field are distributed
+ * over all shards by the ShardStrategy, tables without one are stored on the first shard.
+ */
+public class ShardedAthena {
+
+    /**
+     * The Athena instances of the shards.
+     */
+    private final List<Athena> shards;
+
+    /**
+     * The strategy that picks the shard for a key.
+     */
+    private final ShardStrategy strategy;
+
+    /**
+     * The serialization manager that routes the operations to the shards.
+     */
+    private final ShardedSerializationManager serializationManager;
+
+    /**
+     * Creates a new instance with one shard for every settings and the HASH strategy.
+     *
+     * @param settings the settings of the shards.
+     */
+    public ShardedAthena(List<AthenaSettings> settings) {
+
+        this(settings, ShardStrategy.HASH);
+    }
+
+    /**
+     * Creates a new instance with one shard for every settings.
+     * The order of the settings must not change once data is stored, because the strategy picks shards by index.
+     *
+     * @param settings the settings of the shards.
+     * @param strategy the strategy that picks the shard for a key.
+     */
+    public ShardedAthena(List<AthenaSettings> settings, ShardStrategy strategy) {
+
+        if (settings.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is needed");
+        }
+
+        List<Athena> shards = new ArrayList<>(settings.size());
+        for (AthenaSettings shardSettings : settings) {
+            shards.add(new Athena(shardSettings));
+        }
+
+        this.shards = Collections.unmodifiableList(shards);
+        this.strategy = strategy;
+        this.serializationManager = new ShardedSerializationManager(this);
+    }
+
+    /**
+     * Connects to all shards.
+     */
+    public void connect() {
+
+        for (Athena shard : shards) {
+            shard.connect();
+        }
+    }
+
+    /**
+     * Closes all shards.
+     */
+    public void close() {
+
+        for (Athena shard : shards) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Gets the Athena instances of all shards.
+     *
+     * @return the shards.
+     */
+    public List<Athena> shards() {
+
+        return shards;
+    }
+
+    /**
+     * Gets the Athena instance of a shard.
+     *
+     * @param index the index of the shard.
+     * @return the shard.
+     */
+    public Athena shard(int index) {
+
+        return shards.get(index);
+    }
+
+    /**
+     * Gets the Athena instance of the shard that holds the key.
+     *
+     * @param key the value of the shard key as string.
+     * @return the shard.
+     */
+    public Athena shardFor(String key) {
+
+        return shards.get(strategy.shard(key, shards.size()));
+    }
+
+    /**
+     * Gets the strategy that picks the shard for a key.
+     *
+     * @return the strategy.
+     */
+    public ShardStrategy strategy() {
+
+        return strategy;
+    }
+
+    /**
+     * Gets the serialization manager that routes the operations to the shards.
+     *
+     * @return the ShardedSerializationManager.
+     */
+    public ShardedSerializationManager serializationManager() {
+
+        return serializationManager;
+    }
+
+    /**
+     * Returns whether all shards are connected.
+     *
+     * @return true if all shards are connected, otherwise false.
+     */
+    public boolean isConnected() {
+
+        for (Athena shard : shards) {
+            if (!shard.isConnected()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
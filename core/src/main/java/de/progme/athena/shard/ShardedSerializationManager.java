@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.shard;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.serialization.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Represents the serialization manager of a ShardedAthena instance.
+ *
+ * Writes of a sharded table go to the shard of the ShardKey value of the object. Selects and deletes with an
+ * EQUAL condition on the shard key go to a single shard, all others are sent to every shard in parallel and
+ * the results are merged with the requested order and limit. A group by is applied per shard only.
+ *
+ * AUTO_INCREMENT keys are generated by every shard on its own and are therefore not unique across shards.
+ */
+public class ShardedSerializationManager {
+
+    /**
+     * The sharded Athena instance.
+     */
+    private final ShardedAthena athena;
+
+    /**
+     * Creates a new sharded serialization manager.
+     *
+     * @param athena the sharded Athena instance.
+     */
+    ShardedSerializationManager(ShardedAthena athena) {
+
+        this.athena = athena;
+    }
+
+    /**
+     * Creates the table given in the template class on every shard.
+     *
+     * @param clazz the template class.
+     * @return true if it was successful on every shard otherwise false.
+     */
+    public boolean create(Class<?> clazz) {
+
+        boolean result = true;
+        for (Athena shard : shards(clazz)) {
+            result &= shard.serializationManager().create(clazz);
+        }
+
+        return result;
+    }
+
+    /**
+     * Drops the table given in the template class on every shard.
+     *
+     * @param clazz the template class.
+     * @return true if it was successful on every shard otherwise false.
+     */
+    public boolean drop(Class<?> clazz) {
+
+        boolean result = true;
+        for (Athena shard : shards(clazz)) {
+            result &= shard.serializationManager().drop(clazz);
+        }
+
+        return result;
+    }
+
+    /**
+     * Inserts the object on the shard of its shard key.
+     *
+     * @param object the class as an object.
+     * @return true if ot was successful otherwise false.
+     */
+    public boolean insert(Object object) {
+
+        return shardOf(object).serializationManager().insert(object);
+    }
+
+    /**
+     * Inserts all objects with JDBC batches, every shard gets its objects in one call.
+     *
+     * @param objects the classes as objects.
+     * @return true if it was successful on every shard otherwise false.
+     */
+    public boolean insertAll(Collection<?> objects) {
+
+        boolean result = true;
+        for (Map.Entry<Athena, List<Object>> entry : group(objects).entrySet()) {
+            BatchResult batchResult = entry.getKey().serializationManager().insertAll(entry.getValue());
+            result &= batchResult.successful();
+        }
+
+        return result;
+    }
+
+    /**
+     * Inserts or updates the object on the shard of its shard key.
+     *
+     * @param object the class as an object.
+     * @return true if ot was successful otherwise false.
+     * @see SerializationManager#upsert(Object)
+     */
+    public boolean upsert(Object object) {
+
+        return shardOf(object).serializationManager().upsert(object);
+    }
+
+    /**
+     * Updates the columns of the object on the shard of its shard key.
+     *
+     * @param object the template class as object.
+     * @param setColumns the columns that should be updated.
+     * @param conditions the conditions.
+     * @return true if ot was successful otherwise false.
+     * @see SerializationManager#update(Object, String[], Condition...)
+     */
+    public boolean update(Object object, String[] setColumns, Condition... conditions) {
+
+        return shardOf(object).serializationManager().update(object, setColumns, conditions);
+    }
+
+    /**
+     * Updates all columns of the object on the shard of its shard key.
+     *
+     * @param object the template class as object.
+     * @param conditions the conditions.
+     * @return true if ot was successful otherwise false.
+     * @see SerializationManager#update(Object, Condition...)
+     */
+    public boolean update(Object object, Condition... conditions) {
+
+        return shardOf(object).serializationManager().update(object, conditions);
+    }
+
+    /**
+     * Deletes the rows that match the conditions on the shard of the shard key condition or on every shard.
+     *
+     * @param clazz the template class.
+     * @param conditions the conditions.
+     * @return true if it was successful on every shard otherwise false.
+     */
+    public boolean delete(Class<?> clazz, Condition... conditions) {
+
+        boolean result = true;
+        for (Athena shard : shards(clazz, conditions)) {
+            result &= shard.serializationManager().delete(clazz, conditions);
+        }
+
+        return result;
+    }
+
+    /**
+     * Selects from the shard of the shard key condition or from every shard in parallel.
+     * The results of several shards are merged with the order and cut to the limit.
+     *
+     * @param clazz the template class.
+     * @param limit the limit. -1 if no limit is needed.
+     * @param order the sort order.
+     * @param groupBy the group by or null.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return a automatically filled list of the template class type with field set or null if a shard failed.
+     */
+    public <T> List<T> select(Class<T> clazz, int limit, Order order, String groupBy, Condition... conditions) {
+
+        List<Athena> shards = shards(clazz, conditions);
+        if (shards.size() == 1) {
+            return shards.get(0).serializationManager().select(clazz, limit, order, groupBy, conditions);
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shards.size());
+        for (Athena shard : shards) {
+            futures.add(shard.serializationManager().selectAsync(clazz, limit, order, groupBy, conditions));
+        }
+
+        List<T> resultList = new ArrayList<>();
+        for (CompletableFuture<List<T>> future : futures) {
+            List<T> shardResult = future.join();
+            if (shardResult == null) {
+                return null;
+            }
+
+            resultList.addAll(shardResult);
+        }
+
+        if (order != null) {
+            ColumnMapper column = TableMapper.of(clazz).column(order.column());
+            if (column != null) {
+                resultList.sort(comparator(column, order.type()));
+            }
+        }
+
+        if (limit > 0 && resultList.size() > limit) {
+            return new ArrayList<>(resultList.subList(0, limit));
+        }
+
+        return resultList;
+    }
+
+    /**
+     * Selects with the sort order and conditions from the shards.
+     *
+     * @param clazz the template class.
+     * @param order the sort order.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return a automatically filled list of the template class type with field set.
+     * @see #select(Class, int, Order, String, Condition...)
+     */
+    public <T> List<T> select(Class<T> clazz, Order order, Condition... conditions) {
+
+        return select(clazz, -1, order, null, conditions);
+    }
+
+    /**
+     * Selects with the limit and conditions from the shards.
+     *
+     * @param clazz the template class.
+     * @param limit the limit. -1 if no limit is needed.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return a automatically filled list of the template class type with field set.
+     * @see #select(Class, int, Order, String, Condition...)
+     */
+    public <T> List<T> select(Class<T> clazz, int limit, Condition... conditions) {
+
+        return select(clazz, limit, null, null, conditions);
+    }
+
+    /**
+     * Selects with the conditions from the shards.
+     *
+     * @param clazz the template class.
+     * @param conditions the conditions for the SQL SELECT.
+     * @return a automatically filled list of the template class type with field set.
+     * @see #select(Class, int, Order, String, Condition...)
+     */
+    public <T> List<T> select(Class<T> clazz, Condition... conditions) {
+
+        return select(clazz, -1, null, null, conditions);
+    }
+
+    /**
+     * Gets the shard that holds the object.
+     *
+     * @param object the class as an object.
+     * @return the shard of the shard key value or the first shard if the table is not sharded.
+     */
+    private Athena shardOf(Object object) {
+
+        ColumnMapper shardKey = TableMapper.of(object.getClass()).shardKey();
+        if (shardKey == null) {
+            return athena.shard(0);
+        }
+
+        Object value = shardKey.get(object);
+        if (value == null) {
+            throw new IllegalArgumentException("Shard key " + shardKey.name() + " is null");
+        }
+
+        // keys are routed by their string form, so a long field and an integer condition find the same shard
+        return athena.shardFor(value.toString());
+    }
+
+    /**
+     * Groups the objects by their shard.
+     *
+     * @param objects the classes as objects.
+     * @return the objects of every shard.
+     */
+    private Map<Athena, List<Object>> group(Collection<?> objects) {
+
+        Map<Athena, List<Object>> groups = new LinkedHashMap<>();
+        for (Object object : objects) {
+            groups.computeIfAbsent(shardOf(object), shard -> new ArrayList<>()).add(object);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Gets all shards that hold rows of the table.
+     *
+     * @param clazz the template class.
+     * @return every shard or the first shard if the table is not sharded.
+     */
+    private List<Athena> shards(Class<?> clazz) {
+
+        return TableMapper.of(clazz).shardKey() == null ? Collections.singletonList(athena.shard(0)) : athena.shards();
+    }
+
+    /**
+     * Gets the shards that can hold rows that match the conditions.
+     *
+     * @param clazz the template class.
+     * @param conditions the conditions.
+     * @return the shard of an EQUAL condition on the shard key or all shards of the table.
+     */
+    private List<Athena> shards(Class<?> clazz, Condition... conditions) {
+
+        ColumnMapper shardKey = TableMapper.of(clazz).shardKey();
+        if (shardKey != null) {
+            for (Condition condition : conditions) {
+                if (condition.operator() == Condition.Operator.EQUAL && condition.column().equals(shardKey.name())
+                        && condition.value() != null) {
+                    return Collections.singletonList(athena.shardFor(condition.value().toString()));
+                }
+            }
+        }
+
+        return shards(clazz);
+    }
+
+    /**
+     * Creates the comparator that merges the results of the shards like the database sorted them.
+     * SQL NULL is lower than every other value.
+     *
+     * @param column the order column.
+     * @param type the order type.
+     * @return the comparator.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparator(ColumnMapper column, Order.Type type) {
+
+        Comparator<T> comparator = (a, b) -> {
+            Comparable first = (Comparable) column.get(a);
+            Comparable second = (Comparable) column.get(b);
+
+            if (first == null || second == null) {
+                return first == null ? (second == null ? 0 : -1) : 1;
+            }
+
+            return first.compareTo(second);
+        };
+
+        return type == Order.Type.DESC ? comparator.reversed() : comparator;
+    }
+}
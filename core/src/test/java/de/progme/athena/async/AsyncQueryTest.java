@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.async;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.DBResult;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.CustomQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncQueryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/async.db")
+                .dispatcherStrategy(DispatcherStrategy.BOUNDED)
+                .dispatcherThreads(1)
+                .dispatcherQueueSize(1)
+                .backpressure(Backpressure.ABORT)
+                .build());
+        athena.connect();
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testQueriesRunOnTheDispatcher() throws Exception {
+
+        assertTrue(athena.executeAsync(new CustomQuery("CREATE TABLE test (id INTEGER);")).get(5, TimeUnit.SECONDS));
+        assertTrue(athena.executeAsync(new CustomQuery("INSERT INTO test (id) VALUES (1);")).get(5, TimeUnit.SECONDS));
+
+        DBResult result = athena.queryAsync(new CustomQuery("SELECT id FROM test;")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.size());
+        assertEquals(1, result.row(0).getInt("id"));
+        assertNotSame(Thread.currentThread(), athena.dispatcher().supply(Thread::currentThread).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSelectAsync() throws Exception {
+
+        athena.serializationManager().create(Item.class);
+        athena.serializationManager().insert(new Item(1));
+        athena.serializationManager().insert(new Item(2));
+
+        List<Item> items = athena.serializationManager().selectAsync(Item.class).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() throws Exception {
+
+        CompletableFuture<Object> future = athena.dispatcher().supply(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("The future should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testFullQueueRejects() throws Exception {
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> blocking = athena.dispatcher().supply(() -> {
+            running.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> queued = athena.dispatcher().supply(() -> 1);
+        CompletableFuture<Integer> rejected = athena.dispatcher().supply(() -> 2);
+
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(1, athena.dispatcher().rejectedCount());
+
+        release.countDown();
+        assertTrue(blocking.get(5, TimeUnit.SECONDS));
+        assertEquals(1, (int) queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Table(name = "items", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Item {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        public Item() {
+
+        }
+
+        public Item(long id) {
+
+            this.id = id;
+        }
+    }
+}
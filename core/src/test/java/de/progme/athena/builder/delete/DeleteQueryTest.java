@@ -23,6 +23,8 @@ import de.progme.athena.db.serialization.Condition;
 import de.progme.athena.query.core.DeleteQuery;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -55,4 +57,17 @@ public class DeleteQueryTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testDeleteQueryNotIn() {
+
+        DeleteQuery query = new DeleteQuery.Builder()
+                .from("test")
+                .where(Condition.notIn("id", Arrays.asList(4, 5)))
+                .where(Condition.isNull("name"))
+                .build();
+
+        assertEquals("DELETE FROM test WHERE id NOT IN (?,?) AND name IS NULL;", query.sql());
+        assertEquals(Arrays.<Object>asList(4, 5), query.parameters());
+    }
 }
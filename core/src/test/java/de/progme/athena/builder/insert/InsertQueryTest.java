@@ -40,4 +40,19 @@ public class InsertQueryTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testInsertQueryMultipleRows() {
+
+        String expected = "INSERT INTO test (id,name) VALUES (?,?),(?,?),(?,?);";
+        String actual = new InsertQuery.Builder()
+                .into("test")
+                .columns("id", "name")
+                .row("0", "Jack")
+                .row("1", "John")
+                .values("2", "Jane")
+                .build().sql();
+
+        assertEquals(expected, actual);
+    }
 }
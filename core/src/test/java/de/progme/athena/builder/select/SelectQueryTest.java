@@ -22,10 +22,15 @@ package de.progme.athena.builder.select;
 import de.progme.athena.db.Function;
 import de.progme.athena.db.Join;
 import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.query.PreparedQuery;
+import de.progme.athena.query.Query;
 import de.progme.athena.query.core.SelectQuery;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Created by Marvin Erkes on 13.08.2015.
@@ -106,4 +111,88 @@ public class SelectQueryTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testSelectQueryFunctionOnly() {
+
+        String expected = "SELECT MIN(id) AS min,MAX(id) AS max FROM test;";
+        String actual = new SelectQuery.Builder()
+                .function(new Function(Function.Type.MIN, "id", "min"), new Function(Function.Type.MAX, "id", "max"))
+                .from("test").build().sql();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSelectQueryPrepare() {
+
+        PreparedQuery preparedQuery = new SelectQuery.Builder()
+                .select("name")
+                .from("test")
+                .where(new Condition("id", Condition.Operator.EQUAL, "?"))
+                .where(new Condition("age", Condition.Operator.GREATER, "?"))
+                .prepare();
+
+        Query query = preparedQuery.bind(1, 18);
+
+        assertEquals("SELECT name FROM test WHERE id=? AND age>?;", query.sql());
+        assertEquals(Arrays.<Object>asList(1, 18), query.parameters());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectQueryPrepareWrongParameterCount() {
+
+        new SelectQuery.Builder()
+                .select("name")
+                .from("test")
+                .where(new Condition("id", Condition.Operator.EQUAL, "?"))
+                .prepare()
+                .bind(1, 2);
+    }
+
+    @Test
+    public void testSelectQueryMultiValueOperators() {
+
+        SelectQuery query = new SelectQuery.Builder()
+                .select("name")
+                .from("test")
+                .where(Condition.in("id", Arrays.asList(1, 2, 3)))
+                .where(Condition.between("age", "18", "30"))
+                .where(Condition.like("name", "J%"))
+                .where(Condition.isNotNull("email"))
+                .build();
+
+        assertEquals("SELECT name FROM test WHERE id IN (?,?,?) AND age BETWEEN ? AND ? AND name LIKE ? AND email IS NOT NULL;", query.sql());
+        assertEquals(Arrays.<Object>asList(1, 2, 3, "18", "30", "J%"), query.parameters());
+    }
+
+    @Test
+    public void testSelectQueryEmptyIn() {
+
+        String expected = "SELECT name FROM test WHERE 1=0 AND 1=1;";
+        String actual = new SelectQuery.Builder()
+                .select("name")
+                .from("test")
+                .where(Condition.in("id", Arrays.asList()))
+                .where(Condition.notIn("id", Arrays.asList()))
+                .build().sql();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSelectQueryNullConditionValues() {
+
+        new Condition("email", Condition.Operator.EQUAL, null);
+    }
+
+    @Test
+    public void testSelectQueryNullConditionValue() {
+
+        Object value = null;
+        Condition condition = new Condition("email", Condition.Operator.EQUAL, value);
+
+        assertEquals(1, condition.values().size());
+        assertNull(condition.value());
+    }
 }
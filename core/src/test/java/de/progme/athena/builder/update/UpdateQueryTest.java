@@ -23,6 +23,8 @@ import de.progme.athena.db.serialization.Condition;
 import de.progme.athena.query.core.UpdateQuery;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -69,4 +71,32 @@ public class UpdateQueryTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testUpdateQuerySameColumn() {
+
+        UpdateQuery query = new UpdateQuery.Builder()
+                .update("test")
+                .set("name", "Jacky")
+                .where(new Condition("id", Condition.Operator.GREATER, "1"))
+                .where(new Condition("id", Condition.Operator.LESS, "5"))
+                .build();
+
+        assertEquals("UPDATE test SET name=? WHERE id>? AND id<?;", query.sql());
+        assertEquals(Arrays.<Object>asList("Jacky", "1", "5"), query.parameters());
+    }
+
+    @Test
+    public void testUpdateQueryTypedValues() {
+
+        UpdateQuery query = new UpdateQuery.Builder()
+                .update("test")
+                .set("score", 1.5)
+                .set("active", true)
+                .where(new Condition("id", Condition.Operator.EQUAL, 42L))
+                .build();
+
+        assertEquals("UPDATE test SET score=?,active=? WHERE id=?;", query.sql());
+        assertEquals(Arrays.<Object>asList(1.5, true, 42L), query.parameters());
+    }
 }
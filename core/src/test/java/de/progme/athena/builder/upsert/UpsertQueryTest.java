@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.builder.upsert;
+
+import de.progme.athena.db.Type;
+import de.progme.athena.query.core.UpsertQuery;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class UpsertQueryTest {
+
+    @Test
+    public void testUpsertQueryMySQL() {
+
+        String expected = "INSERT INTO test (id,name,uuid) VALUES (?,?,?) ON DUPLICATE KEY UPDATE name=VALUES(name),uuid=VALUES(uuid);";
+        String actual = new UpsertQuery.Builder()
+                .type(Type.MYSQL)
+                .into("test")
+                .columns("id", "name", "uuid")
+                .values("0", "Jack", "000000-000000-000000")
+                .conflict("id")
+                .build().sql();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testUpsertQuerySQLite() {
+
+        String expected = "INSERT INTO test (id,name,uuid) VALUES (?,?,?),(?,?,?) ON CONFLICT(id) DO UPDATE SET name=excluded.name,uuid=excluded.uuid;";
+        String actual = new UpsertQuery.Builder()
+                .type(Type.SQLITE)
+                .into("test")
+                .columns("id", "name", "uuid")
+                .row("0", "Jack", "000000-000000-000000")
+                .row("1", "John", "000000-000000-000001")
+                .conflict("id")
+                .build().sql();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testUpsertQueryNothingToUpdate() {
+
+        String expected = "INSERT INTO test (id) VALUES (?) ON CONFLICT(id) DO NOTHING;";
+        String actual = new UpsertQuery.Builder()
+                .type(Type.SQLITE)
+                .into("test")
+                .columns("id")
+                .values("0")
+                .conflict("id")
+                .build().sql();
+
+        assertEquals(expected, actual);
+    }
+}
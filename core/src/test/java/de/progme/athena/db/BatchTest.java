@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.db.serialization.SerializationManager;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.Query;
+import de.progme.athena.query.core.InsertQuery;
+import de.progme.athena.query.core.UpdateQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class BatchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/batch.db")
+                .batchSize(4)
+                .printExceptions(false)
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Item.class);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    private static List<Item> items(int from, int to) {
+
+        List<Item> items = new ArrayList<>();
+        for (int id = from; id <= to; id++) {
+            items.add(new Item(id, "item" + id));
+        }
+
+        return items;
+    }
+
+    /**
+     * Reads the ids of all stored rows on a connection of the pool.
+     */
+    private Set<Long> storedIds() {
+
+        Set<Long> ids = new TreeSet<>();
+        for (DBRow row : athena.query("SELECT id FROM items;").rows()) {
+            ids.add(row.getLong("id"));
+        }
+
+        return ids;
+    }
+
+    private static Set<Long> ids(long... ids) {
+
+        Set<Long> set = new TreeSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+
+        return set;
+    }
+
+    @Test
+    public void testInsertAllIsSplitIntoBatches() {
+
+        BatchResult result = serializationManager.insertAll(items(1, 10));
+
+        assertTrue(result.successful());
+        assertEquals(3, result.batches());
+        assertArrayEquals(new int[] { 1, 1, 1, 1 }, result.updateCounts(0));
+        assertArrayEquals(new int[] { 1, 1, 1, 1 }, result.updateCounts(1));
+        assertArrayEquals(new int[] { 1, 1 }, result.updateCounts(2));
+        assertEquals(10, result.updateCount());
+        assertEquals(10, storedIds().size());
+    }
+
+    @Test
+    public void testUpdateCountsOfMixedStatements() {
+
+        List<Query> queries = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            queries.add(new InsertQuery.Builder().into("items").columns("id", "name").values(id, "item" + id).build());
+        }
+        queries.add(new UpdateQuery.Builder().update("items").set("name", "updated")
+                .where(new Condition("id", Condition.Operator.LESS_EQUAL, 2)).build());
+
+        BatchResult result = athena.executeBatch(queries, 10);
+
+        assertTrue(result.successful());
+        assertEquals(1, result.batches());
+        assertArrayEquals(new int[] { 1, 1, 1, 2 }, result.updateCounts(0));
+        assertEquals(5, result.updateCount());
+    }
+
+    @Test
+    public void testFailingRowKeepsCommittedBatches() {
+
+        serializationManager.insert(new Item(6, "existing"));
+
+        // id 6 fails the second batch
+        BatchResult result = serializationManager.insertAll(items(1, 10));
+
+        assertFalse(result.successful());
+        assertEquals(1, result.batches());
+        assertEquals(4, result.updateCount());
+        assertEquals(ids(1, 2, 3, 4, 6), storedIds());
+    }
+
+    @Test
+    public void testBatchesInTransactionAreCommittedOnce() {
+
+        assertTrue(athena.transaction(transaction -> {
+            BatchResult result = serializationManager.insertAll(items(1, 10));
+            assertTrue(result.successful());
+            assertEquals(3, result.batches());
+
+            // no batch is committed before the transaction, so another connection sees no row yet
+            assertEquals(0, (int) athena.dispatcher().supply(() -> storedIds().size()).join());
+        }));
+
+        assertEquals(10, storedIds().size());
+    }
+
+    @Test
+    public void testFailingRowRollsBackTransaction() {
+
+        serializationManager.insert(new Item(6, "existing"));
+
+        assertFalse(athena.transaction(transaction -> assertFalse(serializationManager.insertAll(items(1, 10)).successful())));
+
+        assertEquals(ids(6), storedIds());
+    }
+
+    @Table(name = "items", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Item {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private String name;
+
+        public Item() {
+
+        }
+
+        public Item(long id, String name) {
+
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.CustomQuery;
+import de.progme.athena.query.core.InsertQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class DBCursorTest {
+
+    private static final int ROWS = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/cursor.db")
+                .poolSize(1)
+                .queryTimeout(2000)
+                .fetchSize(10)
+                .build());
+        athena.connect();
+        athena.execute("CREATE TABLE test (id INTEGER PRIMARY KEY, name VARCHAR(255));");
+
+        InsertQuery.Builder builder = new InsertQuery.Builder().into("test").columns("id", "name");
+        for (int i = 1; i <= ROWS; i++) {
+            builder.row(i, "name" + i);
+        }
+        athena.execute(builder.build());
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testCursorReadsAllRowsInOrder() {
+
+        long expected = 1;
+        try (DBCursor cursor = athena.cursor(new CustomQuery("SELECT id, name FROM test ORDER BY id;"))) {
+            while (cursor.hasNext()) {
+                DBRow row = cursor.next();
+
+                assertEquals(expected, row.getLong("id"));
+                assertEquals("name" + expected, row.getObject("name"));
+                expected++;
+            }
+
+            assertFalse(cursor.hasNext());
+        }
+
+        assertEquals(ROWS + 1, expected);
+    }
+
+    @Test
+    public void testClosedCursorReleasesConnection() {
+
+        for (int i = 0; i < 3; i++) {
+            try (DBCursor cursor = athena.cursor(new CustomQuery("SELECT id FROM test;"))) {
+                assertTrue(cursor.hasNext());
+                cursor.next();
+            }
+        }
+
+        // the pool has a single connection, so it was given back by every cursor
+        assertEquals(ROWS, athena.query("SELECT id FROM test;").size());
+    }
+
+    @Test
+    public void testStreamIsLazyAndClosesCursor() {
+
+        try (Stream<DBRow> stream = athena.stream(new CustomQuery("SELECT id FROM test ORDER BY id;"))) {
+            assertEquals(55, stream.limit(10).mapToLong(row -> row.getLong("id")).sum());
+        }
+
+        try (Stream<DBRow> stream = athena.stream(new CustomQuery("SELECT id FROM test;"))) {
+            assertEquals(ROWS, stream.count());
+        }
+
+        assertEquals(ROWS, athena.query("SELECT id FROM test;").size());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db;
+
+import org.junit.Test;
+
+import java.sql.Types;
+
+import static org.junit.Assert.*;
+
+public class DBRowTest {
+
+    private final DBColumns columns = new DBColumns(
+            new String[] { "id", "name", "score", "active" },
+            new int[] { Types.INTEGER, Types.VARCHAR, Types.DOUBLE, Types.BIT },
+            new Class<?>[] { Integer.class, String.class, Double.class, Boolean.class });
+
+    @Test
+    public void testTypedGetters() {
+
+        DBRow row = new DBRow(columns, new Object[] { "Jack" }, new long[] { 7, 1 }, new double[] { 2.5 }, null);
+
+        assertEquals(7, row.getInt("id"));
+        assertEquals(7L, row.getLong(0));
+        assertEquals(2.5, row.getDouble("score"), 0);
+        assertTrue(row.getBoolean("active"));
+        assertEquals("Jack", row.get(1));
+        assertEquals(4, row.size());
+    }
+
+    @Test
+    public void testBoxedValues() {
+
+        DBRow row = new DBRow(columns, new Object[] { "Jack" }, new long[] { 7, 0 }, new double[] { 2.5 }, null);
+
+        assertEquals(Integer.valueOf(7), row.getObject("id"));
+        assertEquals(Double.valueOf(2.5), row.getObject(2));
+        assertEquals(Boolean.FALSE, row.getObject("active"));
+    }
+
+    @Test
+    public void testNullValues() {
+
+        boolean[] nulls = new boolean[4];
+        nulls[0] = true;
+        DBRow row = new DBRow(columns, new Object[] { null }, new long[] { 0, 1 }, new double[] { 2.5 }, nulls);
+
+        assertNull(row.getObject("id"));
+        assertTrue(row.isNull("id"));
+        assertTrue(row.isNull("name"));
+        assertFalse(row.isNull("score"));
+        assertEquals(0, row.getInt("id"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testAddKeepsOrderAndReplacesValues() {
+
+        DBRow row = new DBRow(columns, new Object[] { "Jack" }, new long[] { 7, 1 }, new double[] { 2.5 }, null);
+
+        row.add("rank", 3);
+        row.add("id", 8L);
+
+        assertEquals(5, row.size());
+        assertEquals(8L, row.getLong("id"));
+        assertEquals(Long.valueOf(8), row.getObject(0));
+        assertEquals("Jack", row.get("name"));
+        assertEquals(2.5, row.getDouble("score"), 0);
+        assertTrue(row.getBoolean("active"));
+        assertEquals(Integer.valueOf(3), row.getObject(4));
+        assertEquals(4, columns.size());
+
+        DBRow empty = new DBRow();
+        empty.add("name", null);
+        assertTrue(empty.hasKey("name"));
+        assertTrue(empty.isNull("name"));
+    }
+}
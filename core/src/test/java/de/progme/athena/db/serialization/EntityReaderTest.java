@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EntityReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/entities.db")
+                .build());
+        athena.connect();
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testMutableEntity() {
+
+        SerializationManager serializationManager = athena.serializationManager();
+        serializationManager.create(Player.class);
+
+        Player player = new Player();
+        player.id = 1;
+        player.level = 42;
+        player.score = 1.5;
+        player.online = true;
+        player.name = "Jacky";
+        serializationManager.insert(player);
+
+        List<Player> players = serializationManager.select(Player.class);
+
+        assertEquals(1, players.size());
+        assertEquals(1, players.get(0).id);
+        assertEquals(42, players.get(0).level);
+        assertEquals(1.5, players.get(0).score, 0);
+        assertTrue(players.get(0).online);
+        assertEquals("Jacky", players.get(0).name);
+    }
+
+    @Test
+    public void testImmutableEntity() {
+
+        SerializationManager serializationManager = athena.serializationManager();
+        serializationManager.create(Point.class);
+        serializationManager.insert(new Point(1, 3, 4));
+
+        assertTrue(TableMapper.of(Point.class).isImmutable());
+
+        List<Point> points = serializationManager.select(Point.class);
+
+        assertEquals(1, points.size());
+        assertEquals(1, points.get(0).id);
+        assertEquals(3, points.get(0).x);
+        assertEquals(4, points.get(0).y);
+    }
+
+    @Table(name = "players", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Player {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private int level;
+
+        @Column
+        private double score;
+
+        @Column
+        private boolean online;
+
+        @Column
+        private String name;
+    }
+
+    @Table(name = "points", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Point {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private final long id;
+
+        @Column
+        private final int x;
+
+        @Column
+        private final int y;
+
+        public Point(long id, int x, int y) {
+
+            this.id = id;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
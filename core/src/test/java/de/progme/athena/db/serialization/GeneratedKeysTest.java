@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.DBRow;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.core.InsertQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GeneratedKeysTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/keys.db")
+                .batchSize(3)
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Note.class);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    /**
+     * Reads the ids of all rows from the database keyed by the text.
+     */
+    private Map<String, Long> storedIds() {
+
+        Map<String, Long> ids = new HashMap<>();
+        for (DBRow row : athena.query("SELECT id, text FROM notes;").rows()) {
+            ids.put((String) row.getObject("text"), row.getLong("id"));
+        }
+
+        return ids;
+    }
+
+    @Test
+    public void testInsertWritesKeyBack() {
+
+        Note first = new Note("first");
+        Note second = new Note("second");
+
+        assertTrue(serializationManager.insert(first));
+        assertTrue(serializationManager.insert(second));
+
+        assertEquals((long) storedIds().get("first"), first.id);
+        assertEquals((long) storedIds().get("second"), second.id);
+        assertNotEquals(first.id, second.id);
+    }
+
+    @Test
+    public void testInsertAllInfersBatchKeys() {
+
+        // the keys of the batch do not start at 1
+        serializationManager.insert(new Note("existing"));
+
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            notes.add(new Note("note" + i));
+        }
+
+        BatchResult result = serializationManager.insertAll(notes);
+
+        assertTrue(result.successful());
+        assertEquals(7, result.generatedKeys().length);
+
+        Map<String, Long> stored = storedIds();
+        for (int i = 0; i < notes.size(); i++) {
+            assertEquals((long) stored.get("note" + i), notes.get(i).id);
+            assertEquals(notes.get(i).id, result.generatedKeys()[i]);
+        }
+    }
+
+    @Test
+    public void testMultiRowInsertReturnsAllKeys() {
+
+        long[] keys = athena.executeReturningKeys(new InsertQuery.Builder().into("notes").columns("text")
+                .row("a").row("b").row("c").build());
+
+        Map<String, Long> stored = storedIds();
+        assertArrayEquals(new long[] { stored.get("a"), stored.get("b"), stored.get("c") }, keys);
+    }
+
+    @Test
+    public void testInsertInTransactionWritesKeyBack() {
+
+        Note note = new Note("transaction");
+        assertTrue(athena.transaction(transaction -> assertTrue(serializationManager.insert(note))));
+
+        assertEquals((long) storedIds().get("transaction"), note.id);
+    }
+
+    @Table(name = "notes", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Note {
+
+        @Column(options = { Column.Option.PRIMARY_KEY, Column.Option.AUTO_INCREMENT })
+        private long id;
+
+        @Column
+        private String text;
+
+        public Note() {
+
+        }
+
+        public Note(String text) {
+
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.serialization.exception.SQLSerializationException;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LargeObjectTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/objects.db")
+                .build());
+        athena.connect();
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testColumnTypes() {
+
+        TableMapper<Document> mapper = TableMapper.of(Document.class);
+
+        assertEquals(Column.Type.BLOB, mapper.column("data").type());
+        assertEquals(Column.Type.BLOB, mapper.column("thumbnail").type());
+        assertEquals(Column.Type.BLOB, mapper.column("content").type());
+        assertEquals(Column.Type.TEXT, mapper.column("body").type());
+        assertEquals(Column.Type.TEXT, mapper.column("summary").type());
+        assertEquals(Column.Type.STRING, mapper.column("title").type());
+    }
+
+    @Test(expected = SQLSerializationException.class)
+    public void testUnsupportedStreamType() {
+
+        TableMapper.of(FileDocument.class);
+    }
+
+    @Test(expected = SQLSerializationException.class)
+    public void testUnsupportedValue() {
+
+        TableMapper.of(Document.class).column("data").convert(42);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        SerializationManager serializationManager = athena.serializationManager();
+        serializationManager.create(Document.class);
+
+        byte[] content = new byte[100_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        String body = repeat("Athena ", 20_000);
+
+        Document document = new Document();
+        document.id = 1;
+        document.title = "Manual";
+        document.summary = repeat("x", 1000);
+        document.data = new byte[] { 1, 2, 3 };
+        document.thumbnail = ByteBuffer.wrap(new byte[] { 4, 5 });
+        document.content = new ByteArrayInputStream(content);
+        document.body = new StringReader(body);
+        assertTrue(serializationManager.insert(document));
+
+        List<Document> documents = serializationManager.select(Document.class);
+
+        assertEquals(1, documents.size());
+        Document selected = documents.get(0);
+        assertEquals(document.summary, selected.summary);
+        assertArrayEquals(new byte[] { 1, 2, 3 }, selected.data);
+        assertEquals(ByteBuffer.wrap(new byte[] { 4, 5 }), selected.thumbnail);
+        assertNull(selected.content);
+        assertNull(selected.body);
+
+        assertTrue(serializationManager.fetch(documents));
+        assertArrayEquals(content, readAll(selected.content));
+        assertEquals(body, new String(readAll(selected.body), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOpenStream() throws IOException {
+
+        SerializationManager serializationManager = athena.serializationManager();
+        serializationManager.create(Document.class);
+
+        Document document = new Document();
+        document.id = 1;
+        document.content = new ByteArrayInputStream(new byte[] { 7, 8, 9 });
+        document.body = new StringReader("text");
+        serializationManager.insert(document);
+
+        try (InputStream inputStream = serializationManager.openBinaryStream(document, "content")) {
+            assertArrayEquals(new byte[] { 7, 8, 9 }, readAll(inputStream));
+        }
+        try (Reader reader = serializationManager.openCharacterStream(document, "body")) {
+            assertEquals("text", new String(readAll(reader), StandardCharsets.UTF_8));
+        }
+
+        assertNull(serializationManager.openBinaryStream(document, "data"));
+
+        document.id = 2;
+        assertNull(serializationManager.openBinaryStream(document, "content"));
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] readAll(Reader reader) throws IOException {
+
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[4096];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, read);
+        }
+
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String repeat(String value, int times) {
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+
+        return builder.toString();
+    }
+
+    @Table(name = "file_documents", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class FileDocument {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private FileInputStream content;
+    }
+
+    @Table(name = "documents", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Document {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private String title;
+
+        @Column(text = true)
+        private String summary;
+
+        @Column
+        private byte[] data;
+
+        @Column
+        private ByteBuffer thumbnail;
+
+        @Column(lazy = true)
+        private InputStream content;
+
+        @Column(lazy = true)
+        private Reader body;
+    }
+}
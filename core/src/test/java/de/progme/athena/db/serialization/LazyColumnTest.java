@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LazyColumnTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/lazy.db")
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Article.class);
+
+        Article article = new Article();
+        article.id = 1;
+        article.title = "Title";
+        article.body = "Body";
+        serializationManager.insert(article);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testSelectSkipsLazyColumns() {
+
+        List<Article> articles = serializationManager.select(Article.class);
+
+        assertEquals(1, articles.size());
+        assertEquals("Title", articles.get(0).title);
+        assertNull(articles.get(0).body);
+
+        assertTrue(serializationManager.fetch(articles));
+        assertEquals("Body", articles.get(0).body);
+    }
+
+    @Test
+    public void testUpdateKeepsLazyColumnThatWasNotFetched() {
+
+        Article article = serializationManager.select(Article.class).get(0);
+        article.title = "Changed";
+        assertTrue(serializationManager.update(article));
+
+        Article updated = serializationManager.select(Article.class).get(0);
+        serializationManager.fetch(Collections.singletonList(updated));
+
+        assertEquals("Changed", updated.title);
+        assertEquals("Body", updated.body);
+    }
+
+    @Test
+    public void testUpdateSetsExplicitLazyColumnToNull() {
+
+        Article article = serializationManager.select(Article.class).get(0);
+        assertTrue(serializationManager.update(article, new String[] { "body" }));
+
+        Article updated = serializationManager.select(Article.class).get(0);
+        serializationManager.fetch(Collections.singletonList(updated));
+
+        assertEquals("Title", updated.title);
+        assertNull(updated.body);
+    }
+
+    @Table(name = "articles", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Article {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private String title;
+
+        @Column(lazy = true)
+        private String body;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.serialization.exception.SQLSerializationException;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PagesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/pages.db")
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Entry.class);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    private void insert(int rows) {
+
+        List<Entry> entries = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            entries.add(new Entry(i, i % 2));
+        }
+        assertTrue(serializationManager.insertAll(entries).successful());
+    }
+
+    private static List<Long> ids(List<Entry> entries) {
+
+        return entries.stream().map(entry -> entry.id).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testAscendingPages() {
+
+        insert(25);
+
+        Pages<Entry> pages = serializationManager.pages(Entry.class, 10);
+        List<Integer> sizes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        while (pages.hasNext()) {
+            List<Entry> page = pages.next();
+            sizes.add(page.size());
+            ids.addAll(ids(page));
+        }
+
+        assertEquals(Arrays.asList(10, 10, 5), sizes);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1L, (long) ids.get(i));
+        }
+    }
+
+    @Test
+    public void testLastFullPageEndsIteration() {
+
+        insert(20);
+
+        Pages<Entry> pages = serializationManager.pages(Entry.class, 10);
+        assertEquals(10, pages.next().size());
+        assertEquals(10, pages.next().size());
+        assertFalse(pages.hasNext());
+
+        try {
+            pages.next();
+            fail("There should be no further page");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDescendingSeek() {
+
+        insert(25);
+
+        List<Long> ids = serializationManager.pages(Entry.class, 7, new Order("id", Order.Type.DESC)).stream()
+                .map(entry -> entry.id)
+                .collect(Collectors.toList());
+
+        assertEquals(25, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(25L - i, (long) ids.get(i));
+        }
+    }
+
+    @Test
+    public void testConditionsApplyToEveryPage() {
+
+        insert(25);
+
+        List<Entry> entries = serializationManager.pages(Entry.class, 4, new Condition("parity", Condition.Operator.EQUAL, 1))
+                .stream()
+                .collect(Collectors.toList());
+
+        assertEquals(13, entries.size());
+        assertTrue(entries.stream().allMatch(entry -> entry.parity == 1));
+    }
+
+    @Test
+    public void testUniqueOrderColumn() {
+
+        insert(25);
+
+        List<String> codes = serializationManager.pages(Entry.class, 10, new Order("code", Order.Type.DESC)).stream()
+                .map(entry -> entry.code)
+                .collect(Collectors.toList());
+
+        assertEquals(25, codes.size());
+        for (int i = 1; i < codes.size(); i++) {
+            assertTrue(codes.get(i - 1).compareTo(codes.get(i)) > 0);
+        }
+    }
+
+    @Test(expected = SQLSerializationException.class)
+    public void testNonUniqueOrderColumnIsRejected() {
+
+        // rows with the same parity on a page boundary would be skipped
+        serializationManager.pages(Entry.class, 4, new Order("parity", Order.Type.ASC));
+    }
+
+    @Test(expected = SQLSerializationException.class)
+    public void testLazyOrderColumnIsRejected() {
+
+        serializationManager.pages(Entry.class, 4, new Order("note", Order.Type.ASC));
+    }
+
+    @Test
+    public void testFailedPageIsNotTheEnd() {
+
+        insert(25);
+
+        Pages<Entry> pages = serializationManager.pages(Entry.class, 10);
+        assertEquals(10, pages.next().size());
+
+        serializationManager.drop(Entry.class);
+        try {
+            pages.hasNext();
+            fail("A failed page should not end the iteration");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEmptyTable() {
+
+        assertFalse(serializationManager.pages(Entry.class, 10).hasNext());
+    }
+
+    @Table(name = "entries", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Entry {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private int parity;
+
+        @Column(options = Column.Option.UNIQUE)
+        private String code;
+
+        @Column(lazy = true, options = Column.Option.UNIQUE)
+        private String note;
+
+        public Entry() {
+
+        }
+
+        public Entry(long id, int parity) {
+
+            this.id = id;
+            this.parity = parity;
+            this.code = String.format("code-%03d", id);
+        }
+    }
+}
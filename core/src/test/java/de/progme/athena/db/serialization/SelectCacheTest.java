@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.serialization.cache.CacheStats;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SelectCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/cache.db")
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(City.class);
+        serializationManager.insert(new City(1, "Berlin"));
+        serializationManager.insert(new City(2, "Hamburg"));
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testHitReturnsCopies() {
+
+        List<City> first = serializationManager.select(City.class);
+        first.get(0).name = "Changed";
+
+        List<City> second = serializationManager.select(City.class);
+        List<City> third = serializationManager.select(City.class);
+
+        CacheStats stats = serializationManager.cacheStats(City.class);
+        assertEquals(1, stats.misses());
+        assertEquals(2, stats.hits());
+
+        assertEquals("Berlin", second.get(0).name);
+        second.get(0).name = "Changed";
+        assertEquals("Berlin", third.get(0).name);
+        assertNotSame(second.get(0), third.get(0));
+    }
+
+    @Test
+    public void testWriteInvalidates() {
+
+        assertEquals(2, serializationManager.select(City.class).size());
+
+        serializationManager.insert(new City(3, "Munich"));
+
+        assertEquals(3, serializationManager.select(City.class).size());
+        assertEquals(2, serializationManager.cacheStats(City.class).misses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, 1L));
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, 2L));
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, 3L));
+
+        CacheStats stats = serializationManager.cacheStats(City.class);
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, 1L));
+        assertEquals(0, serializationManager.cacheStats(City.class).hits());
+    }
+
+    @Test
+    public void testKeysAreTyped() {
+
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, 1));
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, 1L));
+        serializationManager.select(City.class, new Condition("id", Condition.Operator.EQUAL, "1"));
+
+        assertEquals(0, serializationManager.cacheStats(City.class).hits());
+
+        serializationManager.select(City.class, new Condition("name", Condition.Operator.EQUAL, new byte[] { 1, 2 }));
+        serializationManager.select(City.class, new Condition("name", Condition.Operator.EQUAL, new byte[] { 1, 2 }));
+
+        assertEquals(1, serializationManager.cacheStats(City.class).hits());
+    }
+
+    @Table(name = "cities", options = Table.Option.CREATE_IF_NOT_EXISTS, cacheSize = 2)
+    public static class City {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private String name;
+
+        public City() {
+
+        }
+
+        public City(long id, String name) {
+
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
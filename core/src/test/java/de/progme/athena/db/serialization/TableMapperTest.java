@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.serialization.exception.SQLSerializationException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TableMapperTest {
+
+    @Test
+    public void testMapperIsCached() {
+
+        assertSame(TableMapper.of(User.class), TableMapper.of(User.class));
+    }
+
+    @Test
+    public void testColumnsAreResolved() {
+
+        TableMapper<User> mapper = TableMapper.of(User.class);
+
+        assertEquals("users", mapper.name());
+        assertArrayEquals(new String[] { "id", "user_name", "age" }, mapper.columnNames());
+        assertEquals(1, mapper.primaryKeys().size());
+        assertSame(mapper.column("id"), mapper.primaryKeys().get(0));
+        assertSame(mapper.column("id"), mapper.generatedKey());
+        assertNull(mapper.column("name"));
+        assertEquals(Column.Type.STRING, mapper.column("user_name").type());
+    }
+
+    @Test
+    public void testAccessorsConvertDriverValues() {
+
+        TableMapper<User> mapper = TableMapper.of(User.class);
+        User user = mapper.newInstance();
+
+        // drivers may return a wider type than the field
+        mapper.column("id").set(user, 7);
+        mapper.column("age").set(user, 42L);
+        mapper.column("user_name").set(user, "Jacky");
+
+        assertEquals(7L, mapper.column("id").get(user));
+        assertEquals(42, user.age);
+        assertEquals("Jacky", user.name);
+    }
+
+    @Test(expected = SQLSerializationException.class)
+    public void testTableAnnotationIsRequired() {
+
+        TableMapper.of(String.class);
+    }
+
+    @Test
+    public void testMissingConstructorKeepsCause() {
+
+        TableMapper<Token> mapper = TableMapper.of(Token.class);
+
+        try {
+            mapper.newInstance();
+            fail("Token has no default constructor");
+        } catch (SQLSerializationException e) {
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+        }
+
+        try {
+            mapper.newInstance(new Object[] { "value" });
+            fail("Token has no constructor with all columns");
+        } catch (SQLSerializationException e) {
+            assertTrue(e.getCause() instanceof NoSuchMethodException);
+        }
+    }
+
+    @Table(name = "users")
+    public static class User {
+
+        @Column(options = { Column.Option.PRIMARY_KEY, Column.Option.AUTO_INCREMENT })
+        private long id;
+
+        @Column(name = "user_name")
+        private String name;
+
+        @Column
+        private int age;
+
+        private String notMapped;
+    }
+
+    @Table(name = "tokens")
+    public static class Token {
+
+        @Column
+        private final String value;
+
+        public Token(String value, int length) {
+
+            this.value = value.substring(0, length);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.async.Backpressure;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TableScanTest {
+
+    private static final int ROWS = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/scan.db")
+                .poolSize(4)
+                .printExceptions(false)
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Reading.class);
+
+        List<Reading> readings = new ArrayList<>(ROWS);
+        for (int i = 1; i <= ROWS; i++) {
+            readings.add(new Reading(i, i % 10));
+        }
+        assertTrue(serializationManager.insertAll(readings).successful());
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testPartitionsCoverAllRows() throws Exception {
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        long rows = serializationManager.scan(Reading.class, 4).forEach(reading -> assertTrue(ids.add(reading.id))).get();
+
+        assertEquals(ROWS, rows);
+        assertEquals(ROWS, ids.size());
+        for (long id = 1; id <= ROWS; id++) {
+            assertTrue(ids.contains(id));
+        }
+    }
+
+    @Test
+    public void testConditionsAndMorePartitionsThanKeys() throws Exception {
+
+        long rows = serializationManager.scan(Reading.class, 3, new Condition("value", Condition.Operator.EQUAL, 7)).forEach(reading -> {
+        }).get();
+        assertEquals(ROWS / 10, rows);
+
+        serializationManager.delete(Reading.class, new Condition("id", Condition.Operator.GREATER, 3));
+        try (Stream<Reading> stream = serializationManager.scan(Reading.class, 16).stream()) {
+            assertEquals(3, stream.collect(Collectors.toList()).size());
+        }
+
+        serializationManager.delete(Reading.class);
+        assertEquals(0L, (long) serializationManager.scan(Reading.class, 4).forEach(reading -> {
+        }).get());
+    }
+
+    @Test(timeout = 30000)
+    public void testClosingStreamStopsPartitions() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            try (Stream<Reading> stream = serializationManager.scan(Reading.class, 4).stream()) {
+                Iterator<Reading> iterator = stream.iterator();
+                for (int row = 0; row < 10; row++) {
+                    assertNotNull(iterator.next());
+                }
+            }
+        }
+
+        // the cancelled partitions released their connections, so a full scan still gets all of them
+        assertEquals(ROWS, (long) serializationManager.scan(Reading.class, 4).forEach(reading -> {
+        }).get());
+    }
+
+    @Test
+    public void testFailureIsPropagated() throws Exception {
+
+        try {
+            serializationManager.scan(Reading.class, 4).forEach(reading -> {
+                if (reading.id == ROWS / 2) {
+                    throw new IllegalStateException("consumer failed");
+                }
+            }).get();
+            fail("The scan should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals("consumer failed", e.getCause().getMessage());
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testKeyRangeWiderThanLong() throws Exception {
+
+        serializationManager.delete(Reading.class);
+
+        List<Reading> readings = new ArrayList<>();
+        for (long id : new long[] { Long.MIN_VALUE, -1, 1, Long.MAX_VALUE }) {
+            readings.add(new Reading(id, 0));
+        }
+        assertTrue(serializationManager.insertAll(readings).successful());
+
+        for (int partitions : new int[] { 1, 3, 16 }) {
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            assertEquals(4L, (long) serializationManager.scan(Reading.class, partitions).forEach(reading -> ids.add(reading.id)).get());
+            assertTrue(ids.containsAll(Arrays.asList(Long.MIN_VALUE, -1L, 1L, Long.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    public void testFailedRangeQueryFailsTheScan() throws Exception {
+
+        TableScan<Reading> scan = serializationManager.scan(Reading.class, 4);
+        serializationManager.drop(Reading.class);
+
+        try {
+            scan.forEach(reading -> {
+            }).get();
+            fail("The scan should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testStreamWithCallerRunsDispatcher() {
+
+        Athena callerRuns = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/scan.db")
+                .poolSize(4)
+                .dispatcherThreads(1)
+                .dispatcherQueueSize(1)
+                .backpressure(Backpressure.CALLER_RUNS)
+                .printExceptions(false)
+                .build());
+        callerRuns.connect();
+
+        try (Stream<Reading> stream = callerRuns.serializationManager().scan(Reading.class, 8).stream()) {
+            assertEquals(ROWS, stream.count());
+        } finally {
+            callerRuns.close();
+        }
+    }
+
+    @Table(name = "readings", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Reading {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private int value;
+
+        public Reading() {
+
+        }
+
+        public Reading(long id, int value) {
+
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
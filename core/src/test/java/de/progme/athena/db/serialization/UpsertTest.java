@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.BatchResult;
+import de.progme.athena.db.DBRow;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.core.UpsertQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class UpsertTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/upsert.db")
+                .batchSize(3)
+                .build());
+        athena.connect();
+
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Note.class);
+        serializationManager.create(Setting.class);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    /**
+     * Reads the texts of all notes from the database keyed by their id.
+     */
+    private Map<Long, String> storedNotes() {
+
+        Map<Long, String> notes = new HashMap<>();
+        for (DBRow row : athena.query("SELECT id, text FROM notes;").rows()) {
+            notes.put(row.getLong("id"), (String) row.getObject("text"));
+        }
+
+        return notes;
+    }
+
+    @Test
+    public void testUpsertInsertsNewObjectAndWritesKeyBack() {
+
+        serializationManager.insert(new Note("existing"));
+
+        Note note = new Note("new");
+        assertTrue(serializationManager.upsert(note));
+
+        assertNotEquals(0, note.id);
+        assertEquals("new", storedNotes().get(note.id));
+        assertEquals(2, storedNotes().size());
+    }
+
+    @Test
+    public void testUpsertUpdatesOnConflict() {
+
+        Note note = new Note("created");
+        assertTrue(serializationManager.insert(note));
+        long id = note.id;
+
+        note.text = "updated";
+        assertTrue(serializationManager.upsert(note));
+
+        assertEquals(id, note.id);
+        assertEquals(1, storedNotes().size());
+        assertEquals("updated", storedNotes().get(id));
+    }
+
+    @Test
+    public void testUpsertOnUniqueColumn() {
+
+        assertTrue(serializationManager.upsert(new Setting("theme", "light")));
+        assertTrue(serializationManager.upsert(new Setting("theme", "dark")));
+        assertTrue(serializationManager.upsert(new Setting("language", "en")));
+
+        List<Setting> settings = serializationManager.select(Setting.class, new Order("name", Order.Type.ASC));
+        assertEquals(2, settings.size());
+        assertEquals("en", settings.get(0).value);
+        assertEquals("dark", settings.get(1).value);
+    }
+
+    @Test
+    public void testUpsertAllMixesInsertsAndUpdates() {
+
+        Note first = new Note("first");
+        Note second = new Note("second");
+        serializationManager.insertAll(Arrays.asList(first, second));
+
+        first.text = "first updated";
+        second.text = "second updated";
+        Note a = new Note("a");
+        Note b = new Note("b");
+        Note c = new Note("c");
+
+        BatchResult result = serializationManager.upsertAll(Arrays.asList(first, a, b, second, c));
+        assertTrue(result.successful());
+
+        Map<Long, String> stored = storedNotes();
+        assertEquals(5, stored.size());
+        assertEquals("first updated", stored.get(first.id));
+        assertEquals("second updated", stored.get(second.id));
+        assertEquals("a", stored.get(a.id));
+        assertEquals("b", stored.get(b.id));
+        assertEquals("c", stored.get(c.id));
+    }
+
+    @Test
+    public void testUpsertAllOnUniqueColumn() {
+
+        serializationManager.upsert(new Setting("theme", "light"));
+
+        BatchResult result = serializationManager.upsertAll(Arrays.asList(new Setting("theme", "dark"),
+                new Setting("language", "en"), new Setting("language", "de")));
+        assertTrue(result.successful());
+
+        List<Setting> settings = serializationManager.select(Setting.class, new Order("name", Order.Type.ASC));
+        assertEquals(2, settings.size());
+        assertEquals("de", settings.get(0).value);
+        assertEquals("dark", settings.get(1).value);
+    }
+
+    @Test
+    public void testMultiRowUpsertQuery() {
+
+        serializationManager.upsert(new Setting("theme", "light"));
+
+        assertTrue(athena.execute(new UpsertQuery.Builder().type(Type.SQLITE).into("settings").columns("name", "value")
+                .row("theme", "dark").row("language", "en").conflict("name").build()));
+
+        List<Setting> settings = serializationManager.select(Setting.class, new Order("name", Order.Type.ASC));
+        assertEquals(2, settings.size());
+        assertEquals("en", settings.get(0).value);
+        assertEquals("dark", settings.get(1).value);
+    }
+
+    @Table(name = "notes", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Note {
+
+        @Column(options = { Column.Option.PRIMARY_KEY, Column.Option.AUTO_INCREMENT })
+        private long id;
+
+        @Column
+        private String text;
+
+        public Note() {
+
+        }
+
+        public Note(String text) {
+
+            this.text = text;
+        }
+    }
+
+    @Table(name = "settings", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Setting {
+
+        @Column(options = Column.Option.UNIQUE)
+        private String name;
+
+        @Column
+        private String value;
+
+        public Setting() {
+
+        }
+
+        public Setting(String name, String value) {
+
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
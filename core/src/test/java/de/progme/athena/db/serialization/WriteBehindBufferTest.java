@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.serialization;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    private SerializationManager serializationManager;
+
+    @Before
+    public void setUp() {
+
+        athena = connect();
+        serializationManager = athena.serializationManager();
+        serializationManager.create(Event.class);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    private Athena connect() {
+
+        Athena athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/events.db")
+                .printExceptions(false)
+                .writeBehindInterval(60_000)
+                .build());
+        athena.connect();
+
+        return athena;
+    }
+
+    @Test
+    public void testUpdatesAreCoalesced() {
+
+        Event event = new Event(1, "created");
+        assertTrue(serializationManager.insert(event));
+
+        for (String name : Arrays.asList("first", "second", "last")) {
+            event.name = name;
+            assertTrue(serializationManager.update(event));
+        }
+
+        assertEquals(4, serializationManager.writeBehind().pending());
+        assertTrue(serializationManager.select(Event.class).isEmpty());
+
+        assertTrue(serializationManager.writeBehind().flush());
+
+        List<Event> events = serializationManager.select(Event.class);
+        assertEquals(1, events.size());
+        assertEquals("last", events.get(0).name);
+        assertEquals(4, serializationManager.writeBehind().flushed());
+        assertEquals(0, serializationManager.writeBehind().pending());
+    }
+
+    @Test
+    public void testDirectWritesKeepOrder() {
+
+        serializationManager.insert(new Event(1, "buffered"));
+        assertTrue(serializationManager.delete(Event.class, new Condition("id", Condition.Operator.EQUAL, 1)));
+
+        assertEquals(0, serializationManager.writeBehind().pending());
+        serializationManager.flush();
+        assertTrue(serializationManager.select(Event.class).isEmpty());
+
+        serializationManager.insert(new Event(2, "buffered"));
+        assertTrue(serializationManager.upsertAll(Arrays.asList(new Event(2, "direct"))).successful());
+
+        List<Event> events = serializationManager.select(Event.class);
+        assertEquals(1, events.size());
+        assertEquals("direct", events.get(0).name);
+    }
+
+    @Test
+    public void testFlushOnClose() {
+
+        WriteBehindBuffer buffer = serializationManager.writeBehind();
+        serializationManager.insert(new Event(1, "buffered"));
+
+        athena.close();
+        assertFalse(buffer.add(Event.class, null, null));
+
+        athena = connect();
+        serializationManager = athena.serializationManager();
+
+        List<Event> events = serializationManager.select(Event.class);
+        assertEquals(1, events.size());
+        assertEquals("buffered", events.get(0).name);
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+
+        serializationManager.drop(Event.class);
+        serializationManager.insert(new Event(1, "retried"));
+
+        WriteBehindBuffer buffer = serializationManager.writeBehind();
+        assertFalse(buffer.flush());
+        assertEquals(1, buffer.pending());
+        assertEquals(0, buffer.failed());
+
+        serializationManager.create(Event.class);
+        assertTrue(buffer.flush());
+
+        List<Event> events = serializationManager.select(Event.class);
+        assertEquals(1, events.size());
+        assertEquals(1, buffer.flushed());
+    }
+
+    @Test
+    public void testFailedWritesAreDroppedAfterMaxAttempts() {
+
+        serializationManager.drop(Event.class);
+        serializationManager.insert(new Event(1, "dropped"));
+
+        WriteBehindBuffer buffer = serializationManager.writeBehind();
+        for (int i = 0; i < WriteBehindBuffer.MAX_ATTEMPTS; i++) {
+            assertFalse(buffer.flush());
+        }
+
+        assertEquals(0, buffer.pending());
+        assertEquals(1, buffer.failed());
+    }
+
+    @Test
+    public void testBadWriteDoesNotFailItsBatch() {
+
+        serializationManager.insert(new Event(1, "first"));
+        assertTrue(serializationManager.writeBehind().flush());
+
+        serializationManager.insert(new Event(1, "duplicate"));
+        serializationManager.insert(new Event(2, "good"));
+
+        WriteBehindBuffer buffer = serializationManager.writeBehind();
+        assertFalse(buffer.flush());
+        assertEquals(1, buffer.pending());
+        assertEquals(2, buffer.flushed());
+        assertEquals(2, serializationManager.select(Event.class).size());
+
+        for (int i = 1; i < WriteBehindBuffer.MAX_ATTEMPTS; i++) {
+            assertFalse(buffer.flush());
+        }
+
+        assertEquals(0, buffer.pending());
+        assertEquals(1, buffer.failed());
+        assertEquals(2, buffer.flushed());
+    }
+
+    @Test
+    public void testOnlyCoalescedWritesAreRetried() {
+
+        serializationManager.drop(Event.class);
+        Event event = new Event(1, "created");
+        serializationManager.insert(event);
+
+        for (String name : Arrays.asList("first", "last")) {
+            event.name = name;
+            serializationManager.update(event);
+        }
+
+        WriteBehindBuffer buffer = serializationManager.writeBehind();
+        assertFalse(buffer.flush());
+        assertEquals(2, buffer.pending());
+
+        serializationManager.create(Event.class);
+        assertTrue(buffer.flush());
+
+        List<Event> events = serializationManager.select(Event.class);
+        assertEquals(1, events.size());
+        assertEquals("last", events.get(0).name);
+        assertEquals(3, buffer.flushed());
+    }
+
+    @Test
+    public void testBufferedWritesSurviveRollback() {
+
+        serializationManager.insert(new Event(1, "buffered"));
+
+        assertFalse(athena.transaction(transaction -> {
+            serializationManager.delete(Event.class, new Condition("id", Condition.Operator.EQUAL, 2));
+            transaction.setRollbackOnly();
+        }));
+
+        List<Event> events = serializationManager.select(Event.class);
+        assertEquals(1, events.size());
+        assertEquals("buffered", events.get(0).name);
+        assertEquals(1, serializationManager.writeBehind().flushed());
+    }
+
+    @Test
+    public void testFailedFlushDoesNotRollBackTransaction() {
+
+        serializationManager.drop(Event.class);
+        serializationManager.insert(new Event(1, "failed"));
+
+        assertTrue(athena.transaction(transaction -> assertFalse(serializationManager.writeBehind().flush())));
+        assertEquals(1, serializationManager.writeBehind().pending());
+    }
+
+    @Test
+    public void testLazyColumnUpdateIsNotCoalescedAway() {
+
+        serializationManager.create(Note.class);
+
+        Note note = new Note();
+        note.id = 1;
+        note.title = "created";
+        serializationManager.insert(note);
+
+        note.body = "changed";
+        serializationManager.update(note);
+
+        Note selected = new Note();
+        selected.id = 1;
+        selected.title = "renamed";
+        serializationManager.update(selected);
+
+        assertTrue(serializationManager.writeBehind().flush());
+
+        List<Note> notes = serializationManager.select(Note.class);
+        assertEquals(1, notes.size());
+        assertEquals("renamed", notes.get(0).title);
+        assertTrue(serializationManager.fetch(notes, "body"));
+        assertEquals("changed", notes.get(0).body);
+    }
+
+    @Table(name = "events", options = { Table.Option.CREATE_IF_NOT_EXISTS, Table.Option.WRITE_BEHIND })
+    public static class Event {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private String name;
+
+        public Event() {
+
+        }
+
+        public Event(long id, String name) {
+
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @Table(name = "notes", options = { Table.Option.CREATE_IF_NOT_EXISTS, Table.Option.WRITE_BEHIND })
+    public static class Note {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private long id;
+
+        @Column
+        private String title;
+
+        @Column(lazy = true)
+        private String body;
+    }
+}
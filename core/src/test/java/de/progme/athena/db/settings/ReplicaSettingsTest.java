@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.settings;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.DBResult;
+import de.progme.athena.db.Type;
+import de.progme.athena.metrics.InMemoryMetrics;
+import de.progme.athena.metrics.JmxExporter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class ReplicaSettingsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDefaults() {
+
+        AthenaSettings settings = new AthenaSettings.Builder().build();
+
+        assertTrue(settings.replicas().isEmpty());
+        assertEquals(ReplicaStrategy.ROUND_ROBIN, settings.replicaStrategy());
+        assertEquals(1000, settings.readYourWritesWindow());
+    }
+
+    @Test
+    public void testReplicasKeepTheirOrder() {
+
+        AthenaSettings settings = new AthenaSettings.Builder()
+                .replica("replica-1", 3306)
+                .replica("replica-2", 3307)
+                .replicaStrategy(ReplicaStrategy.LEAST_ACTIVE)
+                .readYourWritesWindow(0)
+                .build();
+
+        assertEquals(2, settings.replicas().size());
+        assertEquals("replica-1", settings.replicas().get(0).host());
+        assertEquals(3307, settings.replicas().get(1).port());
+        assertEquals(ReplicaStrategy.LEAST_ACTIVE, settings.replicaStrategy());
+        assertEquals(0, settings.readYourWritesWindow());
+    }
+
+    @Test
+    public void testSqliteReadsFromPrimary() throws Exception {
+
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        Athena athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/replicas.db")
+                .replica("localhost", 3306)
+                .metrics(metrics)
+                .build());
+        athena.connect();
+
+        try (JmxExporter exporter = new JmxExporter("replica-test", athena, metrics)) {
+            assertTrue(athena.execute("CREATE TABLE test (id INTEGER);"));
+            assertTrue(athena.execute("INSERT INTO test (id) VALUES (1);"));
+
+            DBResult result = athena.query("SELECT id FROM test;");
+            assertEquals(1, result.size());
+
+            assertNotNull(athena.poolStats());
+            assertTrue(athena.replicaPoolStats().isEmpty());
+
+            assertTrue(exporter.register());
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(0, ((int[]) server.getAttribute(exporter.objectName(), "ReplicaActiveConnections")).length);
+            assertTrue((int) server.getAttribute(exporter.objectName(), "TotalConnections") > 0);
+        } finally {
+            athena.close();
+        }
+
+        assertTrue(athena.replicaPoolStats().isEmpty());
+    }
+}
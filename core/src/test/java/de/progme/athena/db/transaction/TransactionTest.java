@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.db.transaction;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.sql.Savepoint;
+
+import static org.junit.Assert.*;
+
+public class TransactionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/transactions.db")
+                .printExceptions(false)
+                .build());
+        athena.connect();
+        athena.execute("CREATE TABLE test (id INTEGER PRIMARY KEY);");
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    private int count() {
+
+        return athena.query("SELECT id FROM test;").size();
+    }
+
+    @Test
+    public void testCommit() {
+
+        assertTrue(athena.transaction(transaction -> {
+            assertSame(transaction, athena.currentTransaction());
+
+            transaction.execute("INSERT INTO test (id) VALUES (1);");
+            transaction.execute("INSERT INTO test (id) VALUES (2);");
+
+            // the pinned connection sees the uncommitted rows
+            assertEquals(2, transaction.query("SELECT id FROM test;").size());
+        }));
+
+        assertNull(athena.currentTransaction());
+        assertEquals(2, count());
+    }
+
+    @Test
+    public void testExceptionRollsBack() {
+
+        try {
+            athena.transaction(transaction -> {
+                transaction.execute("INSERT INTO test (id) VALUES (1);");
+                throw new IllegalStateException("failed");
+            });
+            fail("The exception should be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertNull(athena.currentTransaction());
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testFailedStatementRollsBack() {
+
+        assertFalse(athena.transaction(transaction -> {
+            transaction.execute("INSERT INTO test (id) VALUES (1);");
+            assertFalse(transaction.execute("INSERT INTO test (id) VALUES (1);"));
+            assertTrue(transaction.isRollbackOnly());
+        }));
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testNestedTransactionJoins() {
+
+        assertFalse(athena.transaction(outer -> {
+            outer.execute("INSERT INTO test (id) VALUES (1);");
+
+            assertFalse(athena.transaction(inner -> {
+                assertSame(outer, inner);
+                inner.setRollbackOnly();
+            }));
+        }));
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testRollbackToSavepointClearsLaterFailure() {
+
+        assertTrue(athena.transaction(transaction -> {
+            transaction.execute("INSERT INTO test (id) VALUES (1);");
+
+            Savepoint savepoint = transaction.savepoint();
+            transaction.execute("INSERT INTO test (id) VALUES (2);");
+            transaction.execute("INSERT INTO test (id) VALUES (1);");
+            assertTrue(transaction.isRollbackOnly());
+
+            transaction.rollback(savepoint);
+            assertFalse(transaction.isRollbackOnly());
+
+            transaction.execute("INSERT INTO test (id) VALUES (3);");
+        }));
+
+        assertEquals(2, count());
+    }
+
+    @Test
+    public void testRollbackToSavepointKeepsEarlierFailure() {
+
+        assertFalse(athena.transaction(transaction -> {
+            transaction.execute("INSERT INTO test (id) VALUES (1);");
+            transaction.execute("INSERT INTO test (id) VALUES (1);");
+
+            Savepoint savepoint = transaction.savepoint();
+            transaction.execute("INSERT INTO test (id) VALUES (2);");
+            transaction.rollback(savepoint);
+
+            assertTrue(transaction.isRollbackOnly());
+        }));
+
+        assertEquals(0, count());
+    }
+}
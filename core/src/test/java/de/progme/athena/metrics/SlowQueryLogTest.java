@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlowQueryLogTest {
+
+    @Test
+    public void testSlowQueryLogThreshold() {
+
+        SlowQueryLog slowQueryLog = new SlowQueryLog(100, 1);
+
+        assertFalse(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(99)));
+        assertTrue(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    @Test
+    public void testSlowQueryLogDisabled() {
+
+        SlowQueryLog slowQueryLog = new SlowQueryLog(0, 1);
+
+        assertFalse(slowQueryLog.isSlow(TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Test
+    public void testSlowQueryLogSampling() {
+
+        SlowQueryLog slowQueryLog = new SlowQueryLog(1, 0);
+
+        assertFalse(slowQueryLog.isSlow(TimeUnit.SECONDS.toNanos(1)));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.progme.athena.query;
+
+import de.progme.athena.Athena;
+import de.progme.athena.db.DBResult;
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.db.settings.AthenaSettings;
+import de.progme.athena.query.core.InsertQuery;
+import de.progme.athena.query.core.SelectQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParametersTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Athena athena;
+
+    @Before
+    public void setUp() {
+
+        athena = new Athena(new AthenaSettings.Builder()
+                .type(Type.SQLITE)
+                .database(folder.getRoot().getAbsolutePath() + "/parameters.db")
+                .build());
+        athena.connect();
+        athena.execute("CREATE TABLE events (id INTEGER, created DATETIME);");
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testSqliteInstantKeepsTextForm() {
+
+        // a row in the form earlier versions stored instants in
+        athena.execute("INSERT INTO events (id, created) VALUES (1, '2020/01/02 03:04:05');");
+        athena.execute(new InsertQuery.Builder().into("events").columns("id", "created")
+                .values(2, Instant.parse("2021-06-07T08:09:10Z")).build());
+
+        DBResult result = athena.query(new SelectQuery.Builder().select("id", "created").from("events")
+                .where(new Condition("created", Condition.Operator.GREATER, Instant.parse("2020-01-02T03:04:05Z")))
+                .build());
+
+        assertEquals(1, result.size());
+        assertEquals("2021/06/07 08:09:10", result.row(0).getObject("created"));
+    }
+
+    @Test
+    public void testDialectIsResolvedOncePerConnection() throws Exception {
+
+        AtomicInteger metadataReads = new AtomicInteger();
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + folder.getRoot().getAbsolutePath() + "/parameters.db");
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO events (id, created) VALUES (?, ?);")) {
+            Connection counting = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                if (method.getName().equals("unwrap")) {
+                    // the proxy stands for the physical connection
+                    return proxy;
+                }
+
+                if (method.getName().equals("getMetaData")) {
+                    metadataReads.incrementAndGet();
+                }
+
+                return invoke(connection, method, args);
+            });
+            PreparedStatement bound = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { PreparedStatement.class }, (proxy, method, args) ->
+                    method.getName().equals("getConnection") ? counting : invoke(statement, method, args));
+
+            for (int i = 0; i < 3; i++) {
+                Parameters.set(bound, 1, i);
+                Parameters.set(bound, 2, Instant.parse("2021-06-07T08:09:10Z"));
+                bound.executeUpdate();
+            }
+        }
+
+        assertEquals(1, metadataReads.get());
+        assertEquals(3, athena.query(new SelectQuery.Builder().select("id").from("events")
+                .where(new Condition("created", Condition.Operator.EQUAL, Instant.parse("2021-06-07T08:09:10Z")))
+                .build()).size());
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2017 "Marvin Erkes"
+ *
+ * This file is part of Athena.
+ *
+ * Athena is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.progme.athena.shard;
+
+import de.progme.athena.db.Type;
+import de.progme.athena.db.serialization.Condition;
+import de.progme.athena.db.serialization.Order;
+import de.progme.athena.db.serialization.annotation.Column;
+import de.progme.athena.db.serialization.annotation.ShardKey;
+import de.progme.athena.db.serialization.annotation.Table;
+import de.progme.athena.db.settings.AthenaSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedAthenaTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ShardedAthena athena;
+
+    @Before
+    public void setUp() {
+
+        List<AthenaSettings> settings = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            settings.add(new AthenaSettings.Builder()
+                    .type(Type.SQLITE)
+                    .database(folder.getRoot().getAbsolutePath() + "/shard" + i + ".db")
+                    .poolSize(2)
+                    .build());
+        }
+
+        athena = new ShardedAthena(settings);
+        athena.connect();
+        athena.serializationManager().create(Purchase.class);
+    }
+
+    @After
+    public void tearDown() {
+
+        athena.close();
+    }
+
+    @Test
+    public void testShardedInsertIsRoutedByShardKey() {
+
+        ShardedSerializationManager serializationManager = athena.serializationManager();
+        assertTrue(serializationManager.insertAll(purchases(30)));
+
+        int total = 0;
+        for (int i = 0; i < athena.shards().size(); i++) {
+            List<Purchase> shardPurchases = athena.shard(i).serializationManager().select(Purchase.class);
+            for (Purchase purchase : shardPurchases) {
+                assertEquals(i, ShardStrategy.HASH.shard(purchase.customer, athena.shards().size()));
+            }
+
+            total += shardPurchases.size();
+        }
+
+        assertEquals(30, total);
+        assertEquals(3, serializationManager.select(Purchase.class, new Condition("customer", Condition.Operator.EQUAL, "c1")).size());
+    }
+
+    @Test
+    public void testShardedSelectMergesOrderAndLimit() {
+
+        ShardedSerializationManager serializationManager = athena.serializationManager();
+        serializationManager.insertAll(purchases(30));
+
+        List<Purchase> purchases = serializationManager.select(Purchase.class, 5, new Order("amount", Order.Type.DESC), null);
+
+        assertEquals(5, purchases.size());
+        for (int i = 0; i < purchases.size(); i++) {
+            assertEquals(29 - i, purchases.get(i).amount);
+        }
+    }
+
+    @Test
+    public void testShardedDeleteOnAllShards() {
+
+        ShardedSerializationManager serializationManager = athena.serializationManager();
+        serializationManager.insertAll(purchases(30));
+
+        assertTrue(serializationManager.delete(Purchase.class, new Condition("amount", Condition.Operator.LESS, "10")));
+        assertEquals(20, serializationManager.select(Purchase.class).size());
+    }
+
+    @Test
+    public void testRangeStrategy() {
+
+        ShardStrategy strategy = ShardStrategy.range(100, 200);
+
+        assertEquals(0, strategy.shard("5", 3));
+        assertEquals(1, strategy.shard("100", 3));
+        assertEquals(2, strategy.shard("250", 3));
+    }
+
+    private static List<Purchase> purchases(int count) {
+
+        List<Purchase> purchases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            purchases.add(new Purchase(i, "c" + (i % 10), i));
+        }
+
+        return purchases;
+    }
+
+    @Table(name = "purchases", options = Table.Option.CREATE_IF_NOT_EXISTS)
+    public static class Purchase {
+
+        @Column(options = Column.Option.PRIMARY_KEY)
+        private int id;
+
+        @ShardKey
+        @Column
+        private String customer;
+
+        @Column
+        private int amount;
+
+        public Purchase() {
+
+        }
+
+        private Purchase(int id, String customer, int amount) {
+
+            this.id = id;
+            this.customer = customer;
+            this.amount = amount;
+        }
+    }
+}